@@ -0,0 +1,175 @@
+package xyz.mcutils.backend.common;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit that tunes itself from the responses it sees (AIMD).
+ * <p>
+ * Every successful call at a healthy latency grows the limit by {@code 1 / limit}, so a fully used limit grows by
+ * about one per round of calls. A dropped call (rate limited, timed out or slower than {@code maxLatency})
+ * multiplies the limit by {@code backoffRatio}. At most one cut is applied per {@code cooldown}, so a burst of
+ * failures from requests that were already in flight only counts once.
+ */
+public final class AdaptiveConcurrencyLimiter {
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long maxLatencyNanos;
+    private final long cooldownNanos;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private long lastDecreaseNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, Duration maxLatency, Duration cooldown) {
+        this(initialLimit, minLimit, maxLimit, backoffRatio, maxLatency, cooldown, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, Duration maxLatency, Duration cooldown,
+                               LongSupplier nanoClock) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limits: min=%d, max=%d".formatted(minLimit, maxLimit));
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.maxLatencyNanos = maxLatency.toNanos();
+        this.cooldownNanos = cooldown.toNanos();
+        this.nanoClock = nanoClock;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.lastDecreaseNanos = nanoClock.getAsLong() - cooldownNanos;
+    }
+
+    /**
+     * Blocks until the number of calls in flight is below the current limit.
+     *
+     * @return the permit, which must be completed exactly once
+     */
+    public Permit acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                permitReleased.await(100, TimeUnit.MILLISECONDS);
+            }
+            inFlight++;
+            return new Permit(nanoClock.getAsLong());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the current concurrency limit.
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of calls currently holding a permit.
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long startNanos, Outcome outcome) {
+        long now = nanoClock.getAsLong();
+        lock.lock();
+        try {
+            inFlight--;
+            if (outcome == Outcome.SUCCESS && now - startNanos > maxLatencyNanos) {
+                outcome = Outcome.DROPPED;
+            }
+            switch (outcome) {
+                case SUCCESS -> {
+                    // Only grow while the limit is actually being used, otherwise quiet periods inflate it forever
+                    if (inFlight + 1 >= limit / 2) {
+                        limit = Math.min(maxLimit, limit + 1 / limit);
+                    }
+                }
+                case DROPPED -> {
+                    if (now - lastDecreaseNanos >= cooldownNanos) {
+                        limit = Math.max(minLimit, limit * backoffRatio);
+                        lastDecreaseNanos = now;
+                    }
+                }
+                case IGNORED -> {}
+            }
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private enum Outcome {
+        SUCCESS,
+        DROPPED,
+        IGNORED
+    }
+
+    /**
+     * A slot held by a single call.
+     */
+    public final class Permit {
+        private long startNanos;
+        private boolean released;
+
+        private Permit(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Restarts the latency clock, for calls that wait on something else (e.g. a rate limit token)
+         * after taking the permit, so that wait isn't mistaken for a slow upstream.
+         */
+        public void startTiming() {
+            startNanos = nanoClock.getAsLong();
+        }
+
+        /**
+         * The call completed; its latency decides whether it counts as healthy.
+         */
+        public void success() {
+            complete(Outcome.SUCCESS);
+        }
+
+        /**
+         * The call was rejected or timed out upstream and the limit should back off.
+         */
+        public void dropped() {
+            complete(Outcome.DROPPED);
+        }
+
+        /**
+         * The call failed for a reason unrelated to load, the limit is left alone.
+         */
+        public void ignore() {
+            complete(Outcome.IGNORED);
+        }
+
+        private void complete(Outcome outcome) {
+            if (released) {
+                return;
+            }
+            released = true;
+            release(startNanos, outcome);
+        }
+    }
+}
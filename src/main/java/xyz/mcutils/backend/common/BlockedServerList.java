@@ -0,0 +1,243 @@
+package xyz.mcutils.backend.common;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.NonNull;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * Mojang's list of blocked servers, as the SHA-1 digests of the blocked hostnames and wildcards.
+ * <p>
+ * The digests sit in a flat open-addressing table, three longs a slot, so a lookup compares
+ * primitives rather than hex strings. A hostname is checked against the digest of itself, and
+ * of every {@code *.suffix} wildcard covering it, or every {@code a.b.*} prefix for an IPv4
+ * address, all hashed from slices of one byte array. Recent verdicts are cached, a new list
+ * starts with an empty cache.
+ * <p>
+ * Immutable once parsed, safe to share between threads.
+ */
+public final class BlockedServerList {
+    private static final int MAX_CACHED_VERDICTS = 50_000;
+    private static final int DIGEST_LENGTH = 20;
+    private static final long OCCUPIED = 1L << 32;
+    private static final byte[] WILDCARD_PREFIX = {'*', '.'};
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT_VIEW = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final MessageDigest SHA1 = newSha1();
+
+    public static final BlockedServerList EMPTY = parse("");
+
+    /**
+     * Slot n holds the first 64 bits of a digest at 3n, the next 64 at 3n + 1, and the last 32
+     * bits at 3n + 2 along with {@link #OCCUPIED}, a zero there marks an empty slot.
+     */
+    private final long[] slots;
+    private final int mask;
+    private final int size;
+    private final Cache<String, Boolean> verdicts = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_VERDICTS)
+            .build();
+
+    private BlockedServerList(long[] slots, int size) {
+        this.slots = slots;
+        this.mask = slots.length / 3 - 1;
+        this.size = size;
+    }
+
+    /**
+     * Parses the list as served by Mojang, one hex digest per line.
+     *
+     * @param body the list
+     * @return the parsed list, lines that are not a digest are skipped
+     */
+    public static BlockedServerList parse(@NonNull String body) {
+        String[] lines = body.split("\n");
+        int capacity = Math.max(2, Integer.highestOneBit(Math.max(1, lines.length) * 2 - 1) << 1);
+        long[] slots = new long[capacity * 3];
+        int size = 0;
+        for (String line : lines) {
+            String hex = line.strip();
+            if (hex.length() != DIGEST_LENGTH * 2 || !isHex(hex)) {
+                continue;
+            }
+            long high = HexFormat.fromHexDigitsToLong(hex, 0, 16);
+            long middle = HexFormat.fromHexDigitsToLong(hex, 16, 32);
+            long low = HexFormat.fromHexDigitsToLong(hex, 32, 40) | OCCUPIED;
+            int slot = (int) high & (capacity - 1);
+            while (slots[slot * 3 + 2] != 0 && !matches(slots, slot, high, middle, low)) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            if (slots[slot * 3 + 2] == 0) {
+                slots[slot * 3] = high;
+                slots[slot * 3 + 1] = middle;
+                slots[slot * 3 + 2] = low;
+                size++;
+            }
+        }
+        return new BlockedServerList(slots, size);
+    }
+
+    /**
+     * @return the number of distinct digests in the list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if a server is blocked, the way the Minecraft client does.
+     *
+     * @param hostname the hostname of the server
+     * @return whether it is blocked
+     */
+    public boolean isBlocked(@NonNull String hostname) {
+        String name = normalize(hostname);
+        if (name.isEmpty() || size == 0) {
+            return false;
+        }
+        return verdicts.get(name, this::matches);
+    }
+
+    /**
+     * Checks a normalized hostname against the list, skipping the verdict cache.
+     *
+     * @param name the lowercase hostname without trailing dots
+     * @return whether it is blocked
+     */
+    public boolean matches(@NonNull String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.ISO_8859_1);
+        int length = bytes.length;
+        MessageDigest sha1 = copySha1();
+        byte[] digest = new byte[DIGEST_LENGTH];
+
+        sha1.update(bytes, 0, length);
+        if (contains(finish(sha1, digest))) {
+            return true;
+        }
+        if (isIpv4(bytes)) {
+            // 1.2.3.*, 1.2.*, 1.*
+            for (int i = length - 1; i > 0; i--) {
+                if (bytes[i] == '.') {
+                    sha1.update(bytes, 0, i + 1);
+                    sha1.update((byte) '*');
+                    if (contains(finish(sha1, digest))) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+        // *.play.example.com, *.example.com, *.com
+        for (int start = 0; start < length; start++) {
+            if (start == 0 || bytes[start - 1] == '.') {
+                sha1.update(WILDCARD_PREFIX);
+                sha1.update(bytes, start, length - start);
+                if (contains(finish(sha1, digest))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lowercases a hostname and removes its trailing dots.
+     *
+     * @param hostname the hostname
+     * @return the normalized hostname
+     */
+    public static String normalize(@NonNull String hostname) {
+        int end = hostname.length();
+        while (end > 0 && hostname.charAt(end - 1) == '.') {
+            end--;
+        }
+        return hostname.substring(0, end).toLowerCase(Locale.ROOT);
+    }
+
+    private boolean contains(byte[] digest) {
+        long high = (long) LONG_VIEW.get(digest, 0);
+        long middle = (long) LONG_VIEW.get(digest, 8);
+        long low = ((int) INT_VIEW.get(digest, 16) & 0xFFFFFFFFL) | OCCUPIED;
+        for (int slot = (int) high & mask; slots[slot * 3 + 2] != 0; slot = (slot + 1) & mask) {
+            if (matches(slots, slot, high, middle, low)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(long[] slots, int slot, long high, long middle, long low) {
+        return slots[slot * 3] == high && slots[slot * 3 + 1] == middle && slots[slot * 3 + 2] == low;
+    }
+
+    /**
+     * Whether the name is four dot separated numbers from 0 to 255.
+     */
+    private static boolean isIpv4(byte[] name) {
+        int labels = 1;
+        int value = 0;
+        int digits = 0;
+        for (byte b : name) {
+            if (b == '.') {
+                if (digits == 0 || ++labels > 4) {
+                    return false;
+                }
+                value = 0;
+                digits = 0;
+            } else if (b >= '0' && b <= '9') {
+                value = value * 10 + (b - '0');
+                if (++digits > 3 || value > 255) {
+                    return false;
+                }
+            } else {
+                return false;
+            }
+        }
+        return labels == 4 && digits > 0;
+    }
+
+    private static boolean isHex(String hex) {
+        for (int i = 0; i < hex.length(); i++) {
+            if (Character.digit(hex.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] finish(MessageDigest sha1, byte[] digest) {
+        try {
+            sha1.digest(digest, 0, DIGEST_LENGTH); // Also resets it for the next variant
+        } catch (Exception ex) {
+            throw new IllegalStateException("Failed to hash a hostname", ex);
+        }
+        return digest;
+    }
+
+    /**
+     * Copies the initial digest, cheaper than looking the algorithm up again.
+     */
+    private static MessageDigest copySha1() {
+        try {
+            return (MessageDigest) SHA1.clone();
+        } catch (CloneNotSupportedException ex) {
+            return newSha1();
+        }
+    }
+
+    private static MessageDigest newSha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -26,6 +26,11 @@ public final class FuzzySearch {
      */
     public static final Pattern DEFAULT_TOKEN_PATTERN = Pattern.compile("[^a-z0-9]+");
 
+    /**
+     * Longest pattern the bit-parallel distance handles, one bit per pattern character in a {@code long}.
+     */
+    public static final int MAX_BIT_PARALLEL_LENGTH = Long.SIZE;
+
     /**
      * Levenshtein (edit) distance between two character sequences.
      *
@@ -60,6 +65,74 @@ public final class FuzzySearch {
         return prev[m];
     }
 
+    /**
+     * Levenshtein distance between two character sequences, giving up once it is known to exceed a bound.
+     * When either sequence fits in {@value #MAX_BIT_PARALLEL_LENGTH} characters this runs Myers' bit-vector
+     * algorithm, otherwise a banded matrix (Ukkonen).
+     *
+     * @param a           first sequence
+     * @param b           second sequence
+     * @param maxDistance the largest distance of interest
+     * @return the distance, or {@code maxDistance + 1} if it is larger than {@code maxDistance}
+     */
+    public static int boundedLevenshteinDistance(CharSequence a, CharSequence b, int maxDistance) {
+        if (Math.abs(a.length() - b.length()) > maxDistance) {
+            return maxDistance + 1;
+        }
+        CharSequence pattern = a.length() <= b.length() ? a : b;
+        CharSequence text = pattern == a ? b : a;
+        if (pattern.length() > MAX_BIT_PARALLEL_LENGTH) {
+            return bandedLevenshteinDistance(a, b, maxDistance);
+        }
+        return new BoundedMatcher(pattern).distance(text, maxDistance);
+    }
+
+    /**
+     * Banded Levenshtein distance: only the diagonal band of width {@code 2 * maxDistance + 1} is computed,
+     * as cells outside it are always over the bound.
+     */
+    static int bandedLevenshteinDistance(CharSequence a, CharSequence b, int maxDistance) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > maxDistance) {
+            return maxDistance + 1;
+        }
+        if (n == 0 || m == 0) {
+            return Math.max(n, m);
+        }
+        int over = maxDistance + 1;
+        int[] prev = new int[m + 1];
+        int[] curr = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            prev[j] = j <= maxDistance ? j : over;
+        }
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - maxDistance);
+            int to = Math.min(m, i + maxDistance);
+            curr[0] = i <= maxDistance ? i : over;
+            if (from > 1) {
+                curr[from - 1] = over;
+            }
+            int rowMin = curr[0];
+            for (int j = from; j <= to; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(curr[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                curr[j] = Math.min(value, over);
+                rowMin = Math.min(rowMin, curr[j]);
+            }
+            if (to < m) {
+                curr[to + 1] = over;
+            }
+            if (rowMin > maxDistance) {
+                return over;
+            }
+            int[] t = prev;
+            prev = curr;
+            curr = t;
+        }
+        return prev[m];
+    }
+
     /**
      * Match score for query against a single text: 0 = substring match, 1..maxFuzzyDistance = fuzzy match, -1 = no match.
      * Comparison is case-insensitive. Checks substring first, then fuzzy match on the full text and on tokens.
@@ -94,7 +167,8 @@ public final class FuzzySearch {
         if (lower.contains(normalizedQuery)) {
             return 0;
         }
-        int best = levenshteinDistance(normalizedQuery, lower);
+        BoundedMatcher matcher = new BoundedMatcher(normalizedQuery);
+        int best = matcher.distance(lower, maxFuzzyDistance);
         if (best <= maxFuzzyDistance) {
             return best;
         }
@@ -102,7 +176,7 @@ public final class FuzzySearch {
             if (token.length() < 2) {
                 continue;
             }
-            best = Math.min(best, levenshteinDistance(normalizedQuery, token));
+            best = matcher.distance(token, maxFuzzyDistance);
             if (best <= maxFuzzyDistance) {
                 return best;
             }
@@ -168,6 +242,109 @@ public final class FuzzySearch {
         return Math.min(a, b);
     }
 
+    /**
+     * Bounded edit distance from one pattern to many texts, keeping the pattern's bit masks between calls.
+     * <p>
+     * Patterns up to {@value #MAX_BIT_PARALLEL_LENGTH} characters run Myers' bit-vector algorithm, which handles
+     * one text character per handful of word operations instead of a matrix row. Longer patterns fall back to
+     * {@link #bandedLevenshteinDistance}. Not thread-safe; use one per thread (or per query), {@link #reset} it
+     * to reuse its buffers for another pattern.
+     */
+    public static final class BoundedMatcher {
+        /** Match masks for ASCII characters: bit {@code i} of {@code masks[c]} is set when {@code pattern[i] == c}. */
+        private final long[] masks = new long[128];
+        private CharSequence pattern;
+
+        public BoundedMatcher(CharSequence pattern) {
+            reset(pattern);
+        }
+
+        /**
+         * Switches this matcher to another pattern.
+         *
+         * @param pattern the new pattern
+         */
+        public void reset(CharSequence pattern) {
+            if (this.pattern != null) {
+                for (int i = 0; i < Math.min(this.pattern.length(), MAX_BIT_PARALLEL_LENGTH); i++) {
+                    char c = this.pattern.charAt(i);
+                    if (c < masks.length) {
+                        masks[c] = 0;
+                    }
+                }
+            }
+            this.pattern = pattern;
+            if (pattern.length() > MAX_BIT_PARALLEL_LENGTH) {
+                return;
+            }
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (c < masks.length) {
+                    masks[c] |= 1L << i;
+                }
+            }
+        }
+
+        /**
+         * Levenshtein distance from the pattern to the text, giving up once it is known to exceed the bound.
+         *
+         * @param text        the text
+         * @param maxDistance the largest distance of interest
+         * @return the distance, or {@code maxDistance + 1} if it is larger than {@code maxDistance}
+         */
+        public int distance(CharSequence text, int maxDistance) {
+            int n = pattern.length();
+            int m = text.length();
+            if (Math.abs(n - m) > maxDistance) {
+                return maxDistance + 1;
+            }
+            if (n > MAX_BIT_PARALLEL_LENGTH) {
+                return bandedLevenshteinDistance(pattern, text, maxDistance);
+            }
+            if (n == 0) {
+                return m;
+            }
+            long last = 1L << (n - 1);
+            long pv = -1L;
+            long mv = 0L;
+            int score = n;
+            for (int j = 0; j < m; j++) {
+                long eq = mask(text.charAt(j));
+                long xv = eq | mv;
+                long xh = (((eq & pv) + pv) ^ pv) | eq;
+                long ph = mv | ~(xh | pv);
+                long mh = pv & xh;
+                if ((ph & last) != 0) {
+                    score++;
+                } else if ((mh & last) != 0) {
+                    score--;
+                }
+                // The last row moves by at most one per remaining text character
+                if (score - (m - j - 1) > maxDistance) {
+                    return maxDistance + 1;
+                }
+                ph = (ph << 1) | 1L; // The top row grows by one per text character
+                mh <<= 1;
+                pv = mh | ~(xv | ph);
+                mv = ph & xv;
+            }
+            return score <= maxDistance ? score : maxDistance + 1;
+        }
+
+        private long mask(char c) {
+            if (c < masks.length) {
+                return masks[c];
+            }
+            long mask = 0L;
+            for (int i = 0; i < pattern.length(); i++) {
+                if (pattern.charAt(i) == c) {
+                    mask |= 1L << i;
+                }
+            }
+            return mask;
+        }
+    }
+
     /**
      * Result of scoring an item (item + match score).
      */
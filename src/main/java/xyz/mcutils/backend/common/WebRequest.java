@@ -51,10 +51,26 @@ public class WebRequest {
     @Value("${mc-utils.http-proxy:}")
     private String httpProxy;
 
+    /**
+     * Connections reserved for requests a user is waiting on, see {@link RequestBuilder#interactive()}.
+     */
+    @Value("${mc-utils.http-client.interactive.max-connections:20}")
+    private int interactiveMaxConnections;
+
+    @Value("${mc-utils.http-client.interactive.connection-request-timeout-ms:2000}")
+    private int interactiveConnectionRequestTimeoutMs;
+
     private RestClient client;
+    private RestClient interactiveClient;
 
     @PostConstruct
     private void initHttpClient() {
+        client = createClient(maxTotalConnections, maxConnectionsPerRoute, connectionRequestTimeoutMs);
+        // Separate pool so background fan-out can never hold every connection a user-facing lookup needs
+        interactiveClient = createClient(interactiveMaxConnections, interactiveMaxConnections, interactiveConnectionRequestTimeoutMs);
+    }
+
+    private RestClient createClient(int maxTotal, int maxPerRoute, int connectionRequestTimeout) {
         SocketConfig socketConfig = SocketConfig.custom()
                 .setSoTimeout(Timeout.of(socketTimeoutMs, TimeUnit.MILLISECONDS))
                 .build();
@@ -64,15 +80,15 @@ public class WebRequest {
                 .build();
 
         PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
-                .setMaxConnTotal(maxTotalConnections)
-                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
                 .setDefaultSocketConfig(socketConfig)
                 .setDefaultConnectionConfig(connectionConfig)
                 .build();
 
         RequestConfig requestConfig = RequestConfig.custom()
                 .setResponseTimeout(Timeout.of(socketTimeoutMs, TimeUnit.MILLISECONDS))
-                .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeoutMs, TimeUnit.MILLISECONDS))
+                .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout, TimeUnit.MILLISECONDS))
                 .build();
 
         CloseableHttpClient httpClient = HttpClients.custom()
@@ -83,9 +99,9 @@ public class WebRequest {
                 .build();
 
         HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
-        requestFactory.setConnectionRequestTimeout(connectionRequestTimeoutMs);
+        requestFactory.setConnectionRequestTimeout(connectionRequestTimeout);
 
-        client = RestClient.builder()
+        return RestClient.builder()
                 .requestFactory(requestFactory)
                 .build();
     }
@@ -102,6 +118,7 @@ public class WebRequest {
         private Method method = Method.GET;
         private Object body;
         private boolean useProxy;
+        private boolean interactive;
 
         private RequestBuilder(String url) {
             this.url = url;
@@ -134,9 +151,17 @@ public class WebRequest {
             return this;
         }
 
+        /**
+         * Sends the request through the interactive pool, which fails fast instead of queueing behind background work.
+         */
+        public RequestBuilder interactive() {
+            this.interactive = true;
+            return this;
+        }
+
         public <T> T as(Class<T> clazz) {
             String requestUrl = resolveUrl();
-            var spec = client.method(toHttpMethod()).uri(requestUrl).accept(MediaType.APPLICATION_JSON);
+            var spec = client().method(toHttpMethod()).uri(requestUrl).accept(MediaType.APPLICATION_JSON);
             if (body != null) {
                 if (body instanceof MultiValueMap) {
                     spec.contentType(MediaType.APPLICATION_FORM_URLENCODED).body(body);
@@ -161,7 +186,7 @@ public class WebRequest {
         }
 
         public <T> ResponseEntity<T> asResponse(Class<T> clazz) {
-            var spec = client.method(toHttpMethod()).uri(resolveUrl());
+            var spec = client().method(toHttpMethod()).uri(resolveUrl());
             if (body != null) {
                 if (body instanceof MultiValueMap) {
                     spec.contentType(MediaType.APPLICATION_FORM_URLENCODED).body(body);
@@ -176,7 +201,7 @@ public class WebRequest {
 
         public byte[] asBytes() {
             try {
-                ResponseEntity<byte[]> response = client.method(toHttpMethod()).uri(resolveUrl())
+                ResponseEntity<byte[]> response = client().method(toHttpMethod()).uri(resolveUrl())
                         .retrieve()
                         .onStatus(HttpStatusCode::isError, (req, res) -> {})
                         .toEntity(byte[].class);
@@ -199,7 +224,7 @@ public class WebRequest {
 
         public boolean exists() {
             try {
-                ResponseEntity<Void> response = client.head().uri(resolveUrl())
+                ResponseEntity<Void> response = client().head().uri(resolveUrl())
                         .retrieve()
                         .onStatus(HttpStatusCode::isError, (req, res) -> {})
                         .toBodilessEntity();
@@ -209,6 +234,10 @@ public class WebRequest {
             }
         }
 
+        private RestClient client() {
+            return interactive ? interactiveClient : client;
+        }
+
         private String resolveUrl() {
             if (useProxy && StringUtils.hasText(httpProxy)) {
                 String base = httpProxy.endsWith("/") ? httpProxy.substring(0, httpProxy.length() - 1) : httpProxy;
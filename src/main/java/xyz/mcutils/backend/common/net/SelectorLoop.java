@@ -0,0 +1,141 @@
+package xyz.mcutils.backend.common.net;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A thread driving one {@link Selector}, for many non-blocking channels at once.
+ * <p>
+ * Channels are registered with a {@link Handler} that is called on this thread when they are ready. Everything
+ * touching the selector, the {@link #getTimers() timers} or the {@link #getBuffer() scratch buffer} must run on
+ * this thread, other threads hand work over with {@link #execute}.
+ */
+@Slf4j
+public final class SelectorLoop implements AutoCloseable {
+    private static final long TICK_MILLIS = 10;
+    private static final int WHEEL_SIZE = 512;
+
+    private final Selector selector;
+    private final Thread thread;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    /**
+     * The timers of this loop, advanced every {@value #TICK_MILLIS}ms.
+     */
+    @Getter
+    private final TimerWheel timers = new TimerWheel(TICK_MILLIS, WHEEL_SIZE);
+
+    /**
+     * A direct scratch buffer shared by every channel on this loop, for reads and writes
+     * that are done with before the handler returns. Cleared before each use.
+     */
+    @Getter
+    private final ByteBuffer buffer;
+
+    /**
+     * Opens the selector and starts the loop.
+     *
+     * @param name       the name of the loop thread
+     * @param bufferSize the size of the scratch buffer
+     * @throws IOException if the selector cannot be opened
+     */
+    public SelectorLoop(String name, int bufferSize) throws IOException {
+        this.selector = Selector.open();
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.thread = Thread.ofPlatform().name(name).daemon().start(this::run);
+    }
+
+    /**
+     * Runs a task on the loop thread.
+     *
+     * @param task the task
+     */
+    public void execute(Runnable task) {
+        tasks.add(task);
+        if (Thread.currentThread() != thread) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Registers a channel with this loop, must be called on the loop thread.
+     *
+     * @param channel the channel, in non-blocking mode
+     * @param ops     the interest set
+     * @param handler the handler for the channel's ready operations
+     * @return the selection key
+     * @throws IOException if the channel cannot be registered
+     */
+    public SelectionKey register(SelectableChannel channel, int ops, Handler handler) throws IOException {
+        return channel.register(selector, ops, handler);
+    }
+
+    /**
+     * Gets the number of channels registered with this loop.
+     */
+    public int getChannelCount() {
+        return selector.keys().size();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                selector.select(TICK_MILLIS);
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    try {
+                        ((Handler) key.attachment()).onReady(key);
+                    } catch (RuntimeException ex) {
+                        log.warn("Handler failed on {}", thread.getName(), ex);
+                        key.cancel();
+                    }
+                }
+                selector.selectedKeys().clear();
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    try {
+                        task.run();
+                    } catch (RuntimeException ex) {
+                        log.warn("Task failed on {}", thread.getName(), ex);
+                    }
+                }
+                timers.advance();
+            } catch (ClosedSelectorException ex) {
+                break;
+            } catch (IOException ex) {
+                log.error("Selector failed on {}", thread.getName(), ex);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.close();
+    }
+
+    /**
+     * Handles the ready operations of a channel.
+     */
+    @FunctionalInterface
+    public interface Handler {
+        /**
+         * Called on the loop thread when the channel is ready for one of its operations.
+         *
+         * @param key the channel's selection key
+         */
+        void onReady(SelectionKey key);
+    }
+}
@@ -0,0 +1,214 @@
+package xyz.mcutils.backend.common.net;
+
+import com.google.common.net.InetAddresses;
+import lombok.NonNull;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A set of subnets, compiled once into binary prefix tries, one for IPv4 and one for IPv6.
+ * <p>
+ * Membership walks at most one node per prefix bit and allocates nothing, IPv4 strings are parsed
+ * in place. IPv4-mapped IPv6 addresses are matched against the IPv4 subnets, so they cannot be
+ * used to get around them.
+ * <p>
+ * Immutable once compiled, safe to share between threads.
+ */
+public final class SubnetMatcher {
+    private final PrefixTrie ipv4 = new PrefixTrie();
+    private final PrefixTrie ipv6 = new PrefixTrie();
+
+    private SubnetMatcher() {}
+
+    /**
+     * Compiles subnets in CIDR notation, an address without a prefix length is a single address.
+     *
+     * @param subnets the subnets, blank entries are skipped
+     * @return the matcher
+     * @throws IllegalArgumentException if a subnet is invalid
+     */
+    public static SubnetMatcher compile(@NonNull Collection<String> subnets) {
+        SubnetMatcher matcher = new SubnetMatcher();
+        for (String subnet : subnets) {
+            String cidr = subnet.strip();
+            if (cidr.isEmpty()) {
+                continue;
+            }
+            int slash = cidr.indexOf('/');
+            InetAddress address;
+            int prefixLength;
+            try {
+                address = InetAddresses.forString(slash < 0 ? cidr : cidr.substring(0, slash));
+                int bits = address.getAddress().length * 8;
+                prefixLength = slash < 0 ? bits : Integer.parseInt(cidr.substring(slash + 1));
+                if (prefixLength < 0 || prefixLength > bits) {
+                    throw new IllegalArgumentException("Prefix length out of range");
+                }
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Invalid subnet: '%s'".formatted(cidr), ex);
+            }
+            byte[] bytes = address.getAddress();
+            if (bytes.length == 4) {
+                matcher.ipv4.insert(ipv4Key(toInt(bytes)), 0, prefixLength);
+            } else {
+                matcher.ipv6.insert(toLong(bytes, 0), toLong(bytes, 8), prefixLength);
+            }
+        }
+        return matcher;
+    }
+
+    /**
+     * Checks if an address is in one of the subnets.
+     *
+     * @param ip the address, IPv4 or IPv6
+     * @return whether it is in one of the subnets
+     * @throws IllegalArgumentException if the address is invalid
+     */
+    public boolean contains(@NonNull String ip) {
+        long ipv4Address = parseIpv4(ip);
+        if (ipv4Address >= 0) {
+            return contains((int) ipv4Address);
+        }
+        return contains(InetAddresses.forString(ip));
+    }
+
+    /**
+     * Checks if an address is in one of the subnets.
+     *
+     * @param address the address
+     * @return whether it is in one of the subnets
+     */
+    public boolean contains(@NonNull InetAddress address) {
+        byte[] bytes = address.getAddress();
+        if (bytes.length == 4) {
+            return contains(toInt(bytes));
+        }
+        return contains(toLong(bytes, 0), toLong(bytes, 8));
+    }
+
+    /**
+     * Checks if an IPv4 address is in one of the subnets.
+     *
+     * @param address the address
+     * @return whether it is in one of the subnets
+     */
+    public boolean contains(int address) {
+        return ipv4.contains(ipv4Key(address), 0, 32);
+    }
+
+    /**
+     * Checks if an IPv6 address is in one of the subnets.
+     *
+     * @param high the high 64 bits of the address
+     * @param low  the low 64 bits of the address
+     * @return whether it is in one of the subnets
+     */
+    public boolean contains(long high, long low) {
+        if (high == 0 && (low >>> 32) == 0xFFFF) { // ::ffff:a.b.c.d
+            return contains((int) low);
+        }
+        return ipv6.contains(high, low, 128);
+    }
+
+    /**
+     * Parses a dotted-quad IPv4 address without allocating.
+     *
+     * @param ip the address
+     * @return the address as an unsigned int, or -1 if it is not a plain IPv4 address
+     */
+    private static long parseIpv4(String ip) {
+        long address = 0;
+        int octet = -1;
+        int octets = 0;
+        for (int i = 0; i < ip.length(); i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (octet == 0) {
+                    return -1; // Leading zeros read as octal in some parsers, leave them to the strict one
+                }
+                octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+                if (octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && octet >= 0 && octets < 3) {
+                address = address << 8 | octet;
+                octet = -1;
+                octets++;
+            } else {
+                return -1;
+            }
+        }
+        return octet < 0 || octets != 3 ? -1 : address << 8 | octet;
+    }
+
+    private static long ipv4Key(int address) {
+        return (long) address << 32;
+    }
+
+    private static int toInt(byte[] bytes) {
+        return (bytes[0] & 0xFF) << 24 | (bytes[1] & 0xFF) << 16 | (bytes[2] & 0xFF) << 8 | (bytes[3] & 0xFF);
+    }
+
+    private static long toLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            value = value << 8 | (bytes[i] & 0xFF);
+        }
+        return value;
+    }
+
+    /**
+     * A binary trie over the bits of a 128-bit key, most significant bit first, IPv4
+     * keys use the top 32 bits. Nodes live in flat arrays, node 0 is the root.
+     */
+    private static final class PrefixTrie {
+        /**
+         * The children of node n are at 2n and 2n + 1, 0 for none as the root is no one's child.
+         */
+        private int[] children = new int[32];
+
+        /**
+         * Whether a subnet ends at the node, covering everything below it.
+         */
+        private boolean[] terminal = new boolean[16];
+        private int size = 1;
+
+        private void insert(long high, long low, int prefixLength) {
+            int node = 0;
+            for (int i = 0; i < prefixLength && !terminal[node]; i++) {
+                int slot = 2 * node + bit(high, low, i);
+                if (children[slot] == 0) {
+                    if (size == terminal.length) {
+                        terminal = Arrays.copyOf(terminal, size * 2);
+                        children = Arrays.copyOf(children, size * 4);
+                    }
+                    children[slot] = size++;
+                }
+                node = children[slot];
+            }
+            terminal[node] = true;
+        }
+
+        private boolean contains(long high, long low, int bits) {
+            int node = 0;
+            for (int i = 0; ; i++) {
+                if (terminal[node]) {
+                    return true;
+                }
+                if (i == bits) {
+                    return false;
+                }
+                node = children[2 * node + bit(high, low, i)];
+                if (node == 0) {
+                    return false;
+                }
+            }
+        }
+
+        private static int bit(long high, long low, int index) {
+            return (int) ((index < 64 ? high >>> (63 - index) : low >>> (127 - index)) & 1);
+        }
+    }
+}
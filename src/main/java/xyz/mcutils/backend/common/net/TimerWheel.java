@@ -0,0 +1,165 @@
+package xyz.mcutils.backend.common.net;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Hashed wheel timer for large numbers of short timeouts that are mostly cancelled before they fire.
+ * <p>
+ * Timeouts are hashed by their deadline tick into a ring of buckets, each a doubly linked list, so scheduling and
+ * cancelling are O(1) and each tick only looks at one bucket. Deadlines are rounded up to the tick, so a timeout
+ * fires up to one tick late but never early. A timeout further out than one turn of the wheel stays in its bucket
+ * until the turn it is due in.
+ * <p>
+ * Not thread-safe: it is owned and {@link #advance advanced} by one thread, usually an event loop.
+ */
+@Slf4j
+public final class TimerWheel {
+    private final long tickNanos;
+    private final Timeout[] buckets;
+    private final int mask;
+    private final LongSupplier nanoClock;
+    private final long startNanos;
+    private final List<Timeout> expired = new ArrayList<>();
+
+    /**
+     * The last tick that was processed.
+     */
+    private long tick;
+    private int pending;
+
+    /**
+     * @param tickMillis the resolution of the timer
+     * @param wheelSize  the number of buckets, rounded up to a power of two
+     */
+    public TimerWheel(long tickMillis, int wheelSize) {
+        this(tickMillis, wheelSize, System::nanoTime);
+    }
+
+    TimerWheel(long tickMillis, int wheelSize, LongSupplier nanoClock) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Invalid timer wheel: tick=%dms, size=%d".formatted(tickMillis, wheelSize));
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        int size = Integer.highestOneBit(wheelSize);
+        this.buckets = new Timeout[size < wheelSize ? size << 1 : size];
+        this.mask = buckets.length - 1;
+        this.nanoClock = nanoClock;
+        this.startNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Schedules a task.
+     *
+     * @param delayMillis the delay before the task runs
+     * @param task        the task
+     * @return the timeout, to cancel it
+     */
+    public Timeout schedule(long delayMillis, Runnable task) {
+        long elapsed = nanoClock.getAsLong() - startNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+        long deadlineTick = Math.max(tick + 1, (elapsed + tickNanos - 1) / tickNanos);
+        Timeout timeout = new Timeout(this, deadlineTick, task);
+        int index = (int) (deadlineTick & mask);
+        timeout.next = buckets[index];
+        if (timeout.next != null) {
+            timeout.next.previous = timeout;
+        }
+        buckets[index] = timeout;
+        pending++;
+        return timeout;
+    }
+
+    /**
+     * Runs the tasks whose deadline has passed.
+     *
+     * @return the number of tasks that ran
+     */
+    public int advance() {
+        long target = (nanoClock.getAsLong() - startNanos) / tickNanos;
+        int count = 0;
+        while (tick < target) {
+            tick++;
+            if (pending == 0) {
+                tick = target; // Nothing to fire, skip the empty buckets
+                break;
+            }
+            // Unlink first, a task may cancel or schedule other timeouts in this bucket
+            Timeout timeout = buckets[(int) (tick & mask)];
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.deadlineTick <= tick) {
+                    timeout.unlink();
+                    expired.add(timeout);
+                }
+                timeout = next;
+            }
+            for (Timeout due : expired) {
+                try {
+                    due.task.run();
+                } catch (RuntimeException ex) {
+                    log.warn("Timer task failed", ex);
+                }
+            }
+            count += expired.size();
+            expired.clear();
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of scheduled timeouts that have not fired or been cancelled.
+     */
+    public int size() {
+        return pending;
+    }
+
+    /**
+     * A scheduled task.
+     */
+    public static final class Timeout {
+        private final TimerWheel wheel;
+        private final long deadlineTick;
+        private final Runnable task;
+        private Timeout previous;
+        private Timeout next;
+        private boolean done;
+
+        private Timeout(TimerWheel wheel, long deadlineTick, Runnable task) {
+            this.wheel = wheel;
+            this.deadlineTick = deadlineTick;
+            this.task = task;
+        }
+
+        /**
+         * Cancels the task if it has not run yet.
+         *
+         * @return whether the task was cancelled
+         */
+        public boolean cancel() {
+            if (done) {
+                return false;
+            }
+            unlink();
+            return true;
+        }
+
+        private void unlink() {
+            done = true;
+            if (previous != null) {
+                previous.next = next;
+            } else {
+                wheel.buckets[(int) (deadlineTick & wheel.mask)] = next;
+            }
+            if (next != null) {
+                next.previous = previous;
+            }
+            previous = null;
+            next = null;
+            wheel.pending--;
+        }
+    }
+}
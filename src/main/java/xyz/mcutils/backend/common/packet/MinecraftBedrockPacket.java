@@ -2,22 +2,37 @@ package xyz.mcutils.backend.common.packet;
 
 import lombok.NonNull;
 
-import java.io.IOException;
-import java.net.DatagramSocket;
+import java.nio.ByteBuffer;
 
 /**
  * Represents a packet in the
  * Minecraft Bedrock protocol.
+ * <p>
+ * RakNet fields are big-endian.
  *
  * @author Braydon
  * @see <a href="https://wiki.vg/Raknet_Protocol">Protocol Docs</a>
  */
-public interface MinecraftBedrockPacket {
+public abstract class MinecraftBedrockPacket {
     /**
-     * Process this packet.
+     * The magic that marks offline (unconnected) messages.
+     */
+    protected static final byte[] MAGIC = {0, -1, -1, 0, -2, -2, -2, -2, -3, -3, -3, -3, 18, 52, 86, 120};
+
+    /**
+     * Read the magic from the buffer and check it.
      *
-     * @param socket the socket to process the packet for
-     * @throws IOException if an I/O error occurs
+     * @param buffer the buffer to read from
+     * @return whether the next bytes were the magic
      */
-    void process(@NonNull DatagramSocket socket) throws IOException;
-}
\ No newline at end of file
+    protected static boolean readMagic(@NonNull ByteBuffer buffer) {
+        if (buffer.remaining() < MAGIC.length) {
+            return false;
+        }
+        boolean matches = true;
+        for (byte b : MAGIC) {
+            matches &= buffer.get() == b;
+        }
+        return matches;
+    }
+}
@@ -2,9 +2,8 @@ package xyz.mcutils.backend.common.packet;
 
 import lombok.NonNull;
 
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * Represents a packet in the
@@ -15,47 +14,60 @@ import java.io.IOException;
  */
 public abstract class MinecraftJavaPacket {
     /**
-     * Process this packet.
-     *
-     * @param inputStream  the input stream to read from
-     * @param outputStream the output stream to write to
-     * @throws IOException if an I/O error occurs
+     * The most bytes a variable integer takes.
      */
-    public abstract void process(@NonNull DataInputStream inputStream, @NonNull DataOutputStream outputStream) throws IOException;
+    public static final int MAX_VAR_INT_SIZE = 5;
 
     /**
-     * Write a variable integer to the output stream.
+     * Write a variable integer to the buffer.
      *
-     * @param outputStream the output stream to write to
-     * @param paramInt     the integer to write
-     * @throws IOException if an I/O error occurs
+     * @param buffer   the buffer to write to
+     * @param paramInt the integer to write
      */
-    protected final void writeVarInt(DataOutputStream outputStream, int paramInt) throws IOException {
+    public static void writeVarInt(@NonNull ByteBuffer buffer, int paramInt) {
         while (true) {
             if ((paramInt & 0xFFFFFF80) == 0) {
-                outputStream.writeByte(paramInt);
+                buffer.put((byte) paramInt);
                 return;
             }
-            outputStream.writeByte(paramInt & 0x7F | 0x80);
+            buffer.put((byte) (paramInt & 0x7F | 0x80));
             paramInt >>>= 7;
         }
     }
 
     /**
-     * Read a variable integer from the input stream.
+     * Get the number of bytes a variable integer takes.
      *
-     * @param inputStream the input stream to read from
+     * @param paramInt the integer
+     * @return the encoded size
+     */
+    public static int varIntSize(int paramInt) {
+        int size = 1;
+        while ((paramInt & 0xFFFFFF80) != 0) {
+            paramInt >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Read a variable integer from the buffer.
+     *
+     * @param buffer the buffer to read from
      * @return the integer that was read
-     * @throws IOException if an I/O error occurs
+     * @throws IOException if the buffer ends before the integer does, or it is too big
      */
-    protected final int readVarInt(@NonNull DataInputStream inputStream) throws IOException {
+    public static int readVarInt(@NonNull ByteBuffer buffer) throws IOException {
         int i = 0;
         int j = 0;
         while (true) {
-            int k = inputStream.readByte();
+            if (!buffer.hasRemaining()) {
+                throw new IOException("Server stream was prematurely ended");
+            }
+            int k = buffer.get();
             i |= (k & 0x7F) << j++ * 7;
-            if (j > 5) {
-                throw new RuntimeException("VarInt was too big");
+            if (j > MAX_VAR_INT_SIZE) {
+                throw new IOException("VarInt was too big");
             }
             if ((k & 0x80) != 128) {
                 break;
@@ -63,4 +75,4 @@ public abstract class MinecraftJavaPacket {
         }
         return i;
     }
-}
\ No newline at end of file
+}
@@ -1,13 +1,10 @@
 package xyz.mcutils.backend.common.packet.impl.bedrock;
 
+import lombok.Getter;
 import lombok.NonNull;
 import xyz.mcutils.backend.common.packet.MinecraftBedrockPacket;
 
-import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 
 /**
  * This packet is sent by the client to the server to
@@ -17,26 +14,45 @@ import java.nio.ByteOrder;
  * @author Braydon
  * @see <a href="https://wiki.vg/Raknet_Protocol#Unconnected_Ping">Protocol Docs</a>
  */
-public final class BedrockPacketUnconnectedPing implements MinecraftBedrockPacket {
+@Getter
+public final class BedrockPacketUnconnectedPing extends MinecraftBedrockPacket {
     private static final byte ID = 0x01; // The ID of the packet
-    private static final byte[] MAGIC = {0, -1, -1, 0, -2, -2, -2, -2, -3, -3, -3, -3, 18, 52, 86, 120};
+    private static final int SIZE = 1 + Long.BYTES + MAGIC.length + Long.BYTES;
 
     /**
-     * Process this packet.
+     * The time field of the ping, echoed back in the pong. Any
+     * value is accepted, so it doubles as the id of the ping.
+     */
+    private final long time;
+
+    /**
+     * The client's GUID.
+     */
+    private final long clientGuid;
+
+    public BedrockPacketUnconnectedPing(long time, long clientGuid) {
+        this.time = time;
+        this.clientGuid = clientGuid;
+    }
+
+    /**
+     * Get the size of this packet.
      *
-     * @param socket the socket to process the packet for
-     * @throws IOException if an I/O error occurs
+     * @return the size in bytes
      */
-    @Override
-    public void process(@NonNull DatagramSocket socket) throws IOException {
-        // Construct the packet buffer
-        ByteBuffer buffer = ByteBuffer.allocate(33).order(ByteOrder.LITTLE_ENDIAN);
+    public int size() {
+        return SIZE;
+    }
+
+    /**
+     * Write this packet to the buffer.
+     *
+     * @param buffer the buffer to write to
+     */
+    public void write(@NonNull ByteBuffer buffer) {
         buffer.put(ID); // Packet ID
-        buffer.putLong(System.currentTimeMillis()); // Timestamp
+        buffer.putLong(time); // Timestamp
         buffer.put(MAGIC); // Magic
-        buffer.putLong(0L); // Client GUID
-
-        // Send the packet
-        socket.send(new DatagramPacket(buffer.array(), 0, buffer.limit()));
+        buffer.putLong(clientGuid); // Client GUID
     }
-}
\ No newline at end of file
+}
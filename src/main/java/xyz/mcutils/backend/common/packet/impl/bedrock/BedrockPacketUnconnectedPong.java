@@ -3,13 +3,8 @@ package xyz.mcutils.backend.common.packet.impl.bedrock;
 import lombok.Getter;
 import lombok.NonNull;
 import xyz.mcutils.backend.common.packet.MinecraftBedrockPacket;
-import xyz.mcutils.backend.model.domain.server.bedrock.BedrockEdition;
 
-import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
 
 /**
@@ -20,8 +15,19 @@ import java.nio.charset.StandardCharsets;
  * @see <a href="https://wiki.vg/Raknet_Protocol#Unconnected_Pong">Protocol Docs</a>
  */
 @Getter
-public final class BedrockPacketUnconnectedPong implements MinecraftBedrockPacket {
+public final class BedrockPacketUnconnectedPong extends MinecraftBedrockPacket {
     private static final byte ID = 0x1C; // The ID of the packet
+    private static final int HEADER_SIZE = 1 + Long.BYTES + Long.BYTES + MAGIC.length + Short.BYTES;
+
+    /**
+     * The time field of the ping this answers.
+     */
+    private long time;
+
+    /**
+     * The server's GUID.
+     */
+    private long serverGuid;
 
     /**
      * The response from the server, null if none.
@@ -29,34 +35,29 @@ public final class BedrockPacketUnconnectedPong implements MinecraftBedrockPacke
     private String response;
 
     /**
-     * Process this packet.
+     * Read the pong from a datagram.
      *
-     * @param socket the socket to process the packet for
-     * @throws IOException if an I/O error occurs
+     * @param datagram the datagram, between its position and limit
+     * @return whether the datagram was a well-formed pong
      */
-    @Override
-    public void process(@NonNull DatagramSocket socket) throws IOException {
-        // Handle receiving of the packet
-        byte[] receiveData = new byte[2048];
-        DatagramPacket receivePacket = new DatagramPacket(receiveData, receiveData.length);
-        socket.receive(receivePacket);
-
-        // Construct a buffer from the received packet
-        ByteBuffer buffer = ByteBuffer.wrap(receivePacket.getData()).order(ByteOrder.LITTLE_ENDIAN);
-        byte id = buffer.get(); // The received packet id
-        if (id == ID) {
-            String response = new String(buffer.array(), StandardCharsets.UTF_8).trim(); // Extract the response
-
-            // Trim the length of the response (short) from the
-            // start of the string, which begins with the edition name
-            for (BedrockEdition edition : BedrockEdition.values()) {
-                int startIndex = response.indexOf(edition.name());
-                if (startIndex != -1) {
-                    response = response.substring(startIndex);
-                    break;
-                }
-            }
-            this.response = response;
+    public boolean read(@NonNull ByteBuffer datagram) {
+        if (datagram.remaining() < HEADER_SIZE || datagram.get() != ID) {
+            return false;
+        }
+        time = datagram.getLong();
+        serverGuid = datagram.getLong();
+        if (!readMagic(datagram)) {
+            return false;
+        }
+
+        // The response is exactly as long as its prefix says, starting with the edition
+        int length = Short.toUnsignedInt(datagram.getShort());
+        if (length > datagram.remaining()) {
+            return false;
         }
+        byte[] data = new byte[length];
+        datagram.get(data);
+        response = new String(data, StandardCharsets.UTF_8);
+        return true;
     }
-}
\ No newline at end of file
+}
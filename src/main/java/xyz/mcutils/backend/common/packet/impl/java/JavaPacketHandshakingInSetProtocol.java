@@ -1,14 +1,11 @@
 package xyz.mcutils.backend.common.packet.impl.java;
 
-import lombok.AllArgsConstructor;
 import lombok.NonNull;
 import lombok.ToString;
 import xyz.mcutils.backend.common.packet.MinecraftJavaPacket;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
-import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 /**
  * This packet is sent by the client to the server to set
@@ -17,7 +14,6 @@ import java.io.IOException;
  * @author Braydon
  * @see <a href="https://wiki.vg/Protocol#Handshake">Protocol Docs</a>
  */
-@AllArgsConstructor
 @ToString
 public final class JavaPacketHandshakingInSetProtocol extends MinecraftJavaPacket {
     private static final byte ID = 0x00; // The ID of the packet
@@ -26,8 +22,7 @@ public final class JavaPacketHandshakingInSetProtocol extends MinecraftJavaPacke
     /**
      * The hostname of the server.
      */
-    @NonNull
-    private final String hostname;
+    private final byte[] hostname;
 
     /**
      * The port of the server.
@@ -39,26 +34,38 @@ public final class JavaPacketHandshakingInSetProtocol extends MinecraftJavaPacke
      */
     private final int protocolVersion;
 
+    public JavaPacketHandshakingInSetProtocol(@NonNull String hostname, int port, int protocolVersion) {
+        this.hostname = hostname.getBytes(StandardCharsets.UTF_8);
+        this.port = port;
+        this.protocolVersion = protocolVersion;
+    }
+
+    /**
+     * Get the size of this packet, including its length prefix.
+     *
+     * @return the size in bytes
+     */
+    public int size() {
+        int length = bodySize();
+        return varIntSize(length) + length;
+    }
+
     /**
-     * Process this packet.
+     * Write this packet to the buffer.
      *
-     * @param inputStream  the input stream to read from
-     * @param outputStream the output stream to write to
-     * @throws IOException if an I/O error occurs
+     * @param buffer the buffer to write to
      */
-    @Override
-    public void process(@NonNull DataInputStream inputStream, @NonNull DataOutputStream outputStream) throws IOException {
-        try (ByteArrayOutputStream handshakeBytes = new ByteArrayOutputStream(); DataOutputStream handshake = new DataOutputStream(handshakeBytes)) {
-            handshake.writeByte(ID); // Write the ID of the packet
-            writeVarInt(handshake, protocolVersion); // Write the protocol version
-            writeVarInt(handshake, hostname.length()); // Write the length of the hostname
-            handshake.writeBytes(hostname); // Write the hostname
-            handshake.writeShort(port); // Write the port
-            writeVarInt(handshake, STATUS_HANDSHAKE); // Write the status handshake ID
+    public void write(@NonNull ByteBuffer buffer) {
+        writeVarInt(buffer, bodySize()); // Write the length of the packet
+        buffer.put(ID); // Write the ID of the packet
+        writeVarInt(buffer, protocolVersion); // Write the protocol version
+        writeVarInt(buffer, hostname.length); // Write the length of the hostname
+        buffer.put(hostname); // Write the hostname
+        buffer.putShort((short) port); // Write the port
+        writeVarInt(buffer, STATUS_HANDSHAKE); // Write the status handshake ID
+    }
 
-            // Write the handshake bytes to the output stream
-            writeVarInt(outputStream, handshakeBytes.size());
-            outputStream.write(handshakeBytes.toByteArray());
-        }
+    private int bodySize() {
+        return 1 + varIntSize(protocolVersion) + varIntSize(hostname.length) + hostname.length + Short.BYTES + varIntSize(STATUS_HANDSHAKE);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package xyz.mcutils.backend.common.packet.impl.java;
+
+import lombok.Getter;
+import lombok.NonNull;
+import xyz.mcutils.backend.common.packet.MinecraftJavaPacket;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * This packet is sent by the client to the server after the
+ * status response, the server echoes its payload back in a
+ * pong, which gives the round trip time to the server.
+ *
+ * @author Braydon
+ * @see <a href="https://wiki.vg/Protocol#Ping_Request_(status)">Protocol Docs</a>
+ */
+@Getter
+public final class JavaPacketStatusInPing extends MinecraftJavaPacket {
+    private static final byte ID = 0x01; // The ID of the packet, and of the pong
+
+    /**
+     * The payload the server has to echo back.
+     */
+    private final long payload;
+
+    public JavaPacketStatusInPing(long payload) {
+        this.payload = payload;
+    }
+
+    /**
+     * Get the size of this packet, including its length prefix.
+     *
+     * @return the size in bytes
+     */
+    public int size() {
+        return 1 + 1 + Long.BYTES;
+    }
+
+    /**
+     * Write this packet to the buffer.
+     *
+     * @param buffer the buffer to write to
+     */
+    public void write(@NonNull ByteBuffer buffer) {
+        buffer.put((byte) (1 + Long.BYTES)); // Size of packet
+        buffer.put(ID);
+        buffer.putLong(payload);
+    }
+
+    /**
+     * Read the pong response, checking it echoes this packet.
+     *
+     * @param frame the pong packet, without its length prefix
+     * @throws IOException if the pong is malformed or does not match
+     */
+    public void readPong(@NonNull ByteBuffer frame) throws IOException {
+        int id = readVarInt(frame);
+        if (id != ID || frame.remaining() < Long.BYTES) {
+            throw new IOException("Server returned invalid pong.");
+        }
+        if (frame.getLong() != payload) {
+            throw new IOException("Server returned a pong for another ping.");
+        }
+    }
+}
@@ -4,9 +4,9 @@ import lombok.Getter;
 import lombok.NonNull;
 import xyz.mcutils.backend.common.packet.MinecraftJavaPacket;
 
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 /**
  * This packet is sent by the client to the server to request the
@@ -26,39 +26,44 @@ public final class JavaPacketStatusInStart extends MinecraftJavaPacket {
     private String response;
 
     /**
-     * Process this packet.
+     * Get the size of the status request, including its length prefix.
      *
-     * @param inputStream  the input stream to read from
-     * @param outputStream the output stream to write to
-     * @throws IOException if an I/O error occurs
+     * @return the size in bytes
      */
-    @Override
-    public void process(@NonNull DataInputStream inputStream, @NonNull DataOutputStream outputStream) throws IOException {
-        // Send the status request
-        outputStream.writeByte(0x01); // Size of packet
-        outputStream.writeByte(ID);
+    public int size() {
+        return 2;
+    }
 
-        // Read the status response
-        readVarInt(inputStream); // Size of the response
-        int id = readVarInt(inputStream);
-        if (id == -1) { // The stream was prematurely ended
-            throw new IOException("Server stream was prematurely ended");
-        }
-        else if (id != ID) { // Invalid packet ID
+    /**
+     * Write the status request to the buffer.
+     *
+     * @param buffer the buffer to write to
+     */
+    public void write(@NonNull ByteBuffer buffer) {
+        buffer.put((byte) 0x01); // Size of packet
+        buffer.put(ID);
+    }
+
+    /**
+     * Read the status response.
+     *
+     * @param frame the response packet, without its length prefix
+     * @throws IOException if the response is malformed
+     */
+    public void read(@NonNull ByteBuffer frame) throws IOException {
+        int id = readVarInt(frame);
+        if (id != ID) { // Invalid packet ID
             throw new IOException("Server returned invalid packet ID.");
         }
 
-        int length = readVarInt(inputStream); // Length of the response
-        if (length == -1) { // The stream was prematurely ended
-            throw new IOException("Server stream was prematurely ended");
-        }
-        else if (length == 0) {
+        int length = readVarInt(frame); // Length of the response
+        if (length <= 0 || length > frame.remaining()) {
             throw new IOException("Server returned unexpected value.");
         }
 
         // Get the json response
         byte[] data = new byte[length];
-        inputStream.readFully(data);
-        response = new String(data);
+        frame.get(data);
+        response = new String(data, StandardCharsets.UTF_8);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,99 @@
+package xyz.mcutils.backend.common.redis;
+
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Token bucket shared by every node through Redis.
+ * <p>
+ * Refill and take happen in a single Lua script using the Redis clock, so nodes with skewed clocks still agree on
+ * the budget. Callers ask for several tokens at once and can leave a reserve in the bucket that only callers with
+ * a lower reserve are allowed to dip into.
+ */
+public final class RedisTokenBucket {
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> TAKE_SCRIPT = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local rate = tonumber(ARGV[1])
+            local capacity = tonumber(ARGV[2])
+            local requested = tonumber(ARGV[3])
+            local reserve = tonumber(ARGV[4])
+
+            local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(state[1]) or capacity
+            local ts = tonumber(state[2]) or now
+            if now > ts then
+                tokens = math.min(capacity, tokens + (now - ts) * rate / 1000)
+                ts = now
+            end
+
+            local granted = 0
+            local available = math.floor(tokens - reserve)
+            if available > 0 then
+                granted = math.min(requested, available)
+                tokens = tokens - granted
+            end
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(ts))
+            redis.call('PEXPIRE', KEYS[1], math.ceil(capacity * 1000 / rate) + 1000)
+
+            local wait = 0
+            if granted == 0 then
+                wait = math.ceil((reserve + 1 - tokens) * 1000 / rate)
+            end
+            return {granted, wait}
+            """, List.class);
+
+    private final RedisTemplate<String, String> redis;
+    private final String key;
+    private final double ratePerSecond;
+    private final long capacity;
+
+    /**
+     * @param redis         the template to run the script on
+     * @param key           the key holding the bucket state
+     * @param ratePerSecond tokens added per second, cluster-wide
+     * @param capacity      the maximum number of tokens the bucket holds (burst size)
+     */
+    public RedisTokenBucket(RedisTemplate<String, String> redis, String key, double ratePerSecond, long capacity) {
+        this.redis = Objects.requireNonNull(redis, "redis");
+        this.key = Objects.requireNonNull(key, "key");
+        this.ratePerSecond = ratePerSecond;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Takes up to {@code requested} tokens without blocking, leaving at least {@code reserve} tokens in the bucket.
+     *
+     * @param requested the number of tokens wanted
+     * @param reserve   the number of tokens that must stay in the bucket after the take
+     * @return the tokens granted, and when none were, roughly how long until one would be
+     */
+    public Grant tryTake(int requested, long reserve) {
+        List<?> result = redis.execute(TAKE_SCRIPT, List.of(key),
+                String.valueOf(ratePerSecond), String.valueOf(capacity), String.valueOf(requested), String.valueOf(reserve));
+        if (result == null || result.size() < 2) {
+            return new Grant(0, 100);
+        }
+        return new Grant(((Number) result.get(0)).intValue(), ((Number) result.get(1)).longValue());
+    }
+
+    public double ratePerSecond() {
+        return ratePerSecond;
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    /**
+     * @param granted the number of tokens taken
+     * @param waitMs  when nothing was granted, the suggested wait before trying again
+     */
+    public record Grant(int granted, long waitMs) {}
+}
@@ -0,0 +1,307 @@
+package xyz.mcutils.backend.common.search;
+
+import xyz.mcutils.backend.common.FuzzySearch;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable search index with the same matching rules as {@link FuzzySearch#search}: a substring hit scores 0, a
+ * text or one of its tokens within the edit distance scores the distance (the closest one, if several are).
+ * <p>
+ * Everything is lowercased and tokenised once when the index is built. Substring hits come from an n-gram
+ * inverted index (1 to 3 characters), fuzzy hits from a sorted dictionary of the distinct texts and tokens.
+ * Long queries narrow the dictionary down by shared trigrams before any distance is computed, short ones walk it
+ * as an implicit trie, so neither scans the whole dictionary.
+ *
+ * @param <T> the item type
+ */
+public final class TextSearchIndex<T> {
+    private static final int GRAM_LENGTH = 3;
+    private static final int[] NO_POSTINGS = new int[0];
+
+    private final List<T> items;
+    /** Lowercased texts of each item, for verifying substring candidates. */
+    private final String[][] texts;
+    /** Every 1 to 3 character substring of the item texts, to the items containing it. */
+    private final Map<String, int[]> itemsByGram;
+
+    /** Distinct lowercased texts and tokens, sorted, matched by edit distance. */
+    private final String[] terms;
+    private final int[][] itemsByTerm;
+    private final int maxTermLength;
+    private final Map<String, int[]> termsByTrigram;
+
+    private TextSearchIndex(List<T> items, String[][] texts, Map<String, int[]> itemsByGram, String[] terms,
+                            int[][] itemsByTerm, int maxTermLength, Map<String, int[]> termsByTrigram) {
+        this.items = items;
+        this.texts = texts;
+        this.itemsByGram = itemsByGram;
+        this.terms = terms;
+        this.itemsByTerm = itemsByTerm;
+        this.maxTermLength = maxTermLength;
+        this.termsByTrigram = termsByTrigram;
+    }
+
+    /**
+     * Builds an index over the given items.
+     *
+     * @param items         the items, in the order ties should be returned
+     * @param textExtractor the strings to match per item (e.g. name, hostnames)
+     * @param tokenPattern  the pattern splitting texts into tokens for fuzzy matching
+     * @param <T>           the item type
+     * @return the index
+     */
+    public static <T> TextSearchIndex<T> build(List<T> items, Function<T, ? extends Collection<String>> textExtractor,
+                                               Pattern tokenPattern) {
+        String[][] texts = new String[items.size()][];
+        Map<String, Set<Integer>> gramItems = new HashMap<>();
+        Map<String, Set<Integer>> termItems = new TreeMap<>(); // Sorted, for the trie walk of fuzzyCandidates
+        for (int item = 0; item < items.size(); item++) {
+            List<String> itemTexts = new ArrayList<>();
+            for (String text : textExtractor.apply(items.get(item))) {
+                if (text == null) {
+                    continue;
+                }
+                String lower = text.toLowerCase();
+                itemTexts.add(lower);
+                for (int length = 1; length <= GRAM_LENGTH; length++) {
+                    for (int i = 0; i + length <= lower.length(); i++) {
+                        gramItems.computeIfAbsent(lower.substring(i, i + length), k -> new HashSet<>()).add(item);
+                    }
+                }
+                termItems.computeIfAbsent(lower, k -> new HashSet<>()).add(item);
+                for (String token : tokenPattern.split(lower)) {
+                    if (token.length() >= 2) {
+                        termItems.computeIfAbsent(token, k -> new HashSet<>()).add(item);
+                    }
+                }
+            }
+            texts[item] = itemTexts.toArray(String[]::new);
+        }
+
+        Map<String, int[]> itemsByGram = new HashMap<>(gramItems.size());
+        gramItems.forEach((gram, postings) -> itemsByGram.put(gram, sorted(postings)));
+
+        String[] terms = termItems.keySet().toArray(String[]::new);
+        int[][] itemsByTerm = new int[terms.length][];
+        int maxLength = 0;
+        Map<String, Set<Integer>> trigramTerms = new HashMap<>();
+        for (int term = 0; term < terms.length; term++) {
+            itemsByTerm[term] = sorted(termItems.get(terms[term]));
+            maxLength = Math.max(maxLength, terms[term].length());
+            for (String trigram : trigrams(terms[term])) {
+                trigramTerms.computeIfAbsent(trigram, k -> new HashSet<>()).add(term);
+            }
+        }
+        Map<String, int[]> termsByTrigram = new HashMap<>(trigramTerms.size());
+        trigramTerms.forEach((trigram, postings) -> termsByTrigram.put(trigram, sorted(postings)));
+
+        return new TextSearchIndex<>(List.copyOf(items), texts, itemsByGram, terms, itemsByTerm, maxLength, termsByTrigram);
+    }
+
+    /**
+     * Gets the number of indexed items.
+     */
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Searches the index, with the ordering of {@link FuzzySearch#search}.
+     *
+     * @param query            the search query
+     * @param maxFuzzyDistance the maximum edit distance for a fuzzy match
+     * @param limit            the maximum number of results
+     * @return the matching items, best matches first
+     */
+    public List<T> search(String query, int maxFuzzyDistance, int limit) {
+        if (query == null || query.isBlank() || items.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String normalized = query.trim().toLowerCase();
+        Map<Integer, Integer> scores = new HashMap<>();
+
+        for (int item : substringCandidates(normalized)) {
+            scores.put(item, 0);
+        }
+        FuzzySearch.BoundedMatcher matcher = new FuzzySearch.BoundedMatcher(normalized);
+        for (int term : fuzzyCandidates(normalized, maxFuzzyDistance)) {
+            int distance = matcher.distance(terms[term], maxFuzzyDistance);
+            if (distance > maxFuzzyDistance) {
+                continue;
+            }
+            for (int item : itemsByTerm[term]) {
+                scores.merge(item, distance, Math::min);
+            }
+        }
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(entry -> items.get(entry.getKey()))
+                .toList();
+    }
+
+    /**
+     * Items with a text containing the query: a direct lookup for short queries, otherwise the intersection of
+     * the query's trigram postings, verified against the texts.
+     */
+    private List<Integer> substringCandidates(String query) {
+        if (query.length() <= GRAM_LENGTH) {
+            int[] postings = itemsByGram.getOrDefault(query, NO_POSTINGS);
+            return Arrays.stream(postings).boxed().toList();
+        }
+        int[] candidates = null;
+        for (String trigram : trigrams(query)) {
+            int[] postings = itemsByGram.getOrDefault(trigram, NO_POSTINGS);
+            candidates = candidates == null ? postings : intersect(candidates, postings);
+            if (candidates.length == 0) {
+                return List.of();
+            }
+        }
+        List<Integer> matches = new ArrayList<>();
+        for (int item : candidates) {
+            for (String text : texts[item]) {
+                if (text.contains(query)) {
+                    matches.add(item);
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Terms that may be within the distance of the query. A term within {@code k} edits still shares all but
+     * {@code 3k} of the query's distinct trigrams, so long queries only look at terms sharing enough of them.
+     * Short queries share too few trigrams for that and walk the terms as a trie instead, see {@link #trieMatches}.
+     */
+    private List<Integer> fuzzyCandidates(String query, int maxDistance) {
+        Set<String> queryTrigrams = trigrams(query);
+        int required = queryTrigrams.size() - GRAM_LENGTH * maxDistance;
+        if (required <= 0) {
+            return trieMatches(query, maxDistance);
+        }
+        List<Integer> candidates = new ArrayList<>();
+        Map<Integer, Integer> shared = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            for (int term : termsByTrigram.getOrDefault(trigram, NO_POSTINGS)) {
+                if (shared.merge(term, 1, Integer::sum) == required) {
+                    candidates.add(term);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Terms within the distance of the query, walking the sorted terms as an implicit trie like
+     * {@link UsernamePrefixIndex#searchFuzzy}: one Levenshtein row per character, shared with the previous term
+     * for their common prefix. Once every cell of a row is over the distance, every term under that prefix is
+     * skipped at once, so the walk only visits the prefixes close to the query rather than the whole dictionary.
+     */
+    private List<Integer> trieMatches(String query, int maxDistance) {
+        int n = query.length();
+        int[][] rows = new int[maxTermLength + 1][n + 1];
+        for (int i = 0; i <= n; i++) {
+            rows[0][i] = i;
+        }
+
+        List<Integer> matches = new ArrayList<>();
+        String previous = null;
+        int computed = 0; // Rows of the previous term that are valid
+        int index = 0;
+        while (index < terms.length) {
+            String term = terms[index];
+            int depth = previous == null ? 0 : Math.min(computed, commonPrefix(previous, term));
+            int pruned = -1;
+            while (depth < term.length()) {
+                int[] above = rows[depth];
+                int[] row = rows[depth + 1];
+                char c = term.charAt(depth);
+                row[0] = depth + 1;
+                int min = row[0];
+                for (int i = 1; i <= n; i++) {
+                    row[i] = Math.min(Math.min(row[i - 1], above[i]) + 1, above[i - 1] + (query.charAt(i - 1) == c ? 0 : 1));
+                    min = Math.min(min, row[i]);
+                }
+                depth++;
+                if (min > maxDistance) {
+                    pruned = depth;
+                    break;
+                }
+            }
+            previous = term;
+            computed = depth;
+            if (pruned >= 0) {
+                index = prefixEnd(index, term.substring(0, pruned));
+                continue;
+            }
+            if (rows[term.length()][n] <= maxDistance) {
+                matches.add(index);
+            }
+            index++;
+        }
+        return matches;
+    }
+
+    /**
+     * First index after {@code index} whose term doesn't start with the prefix.
+     */
+    private int prefixEnd(int index, String prefix) {
+        int lo = index + 1;
+        int hi = terms.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (terms[mid].startsWith(prefix)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++) {
+            if (a.charAt(i) != b.charAt(i)) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return trigrams;
+    }
+
+    private static int[] sorted(Set<Integer> values) {
+        int[] array = values.stream().mapToInt(Integer::intValue).toArray();
+        Arrays.sort(array);
+        return array;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int count = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
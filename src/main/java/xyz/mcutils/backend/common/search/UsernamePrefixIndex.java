@@ -0,0 +1,383 @@
+package xyz.mcutils.backend.common.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Immutable prefix index over lowercased usernames, ranked by a popularity score (monthly views).
+ * <p>
+ * Names are packed as UTF-8 into one byte array in sorted order, so every prefix maps to one contiguous range,
+ * found with two binary searches. A segment tree of per-range argmax scores then pulls the top results out of
+ * that range best-first, without scanning it, so short prefixes matching millions of names stay cheap.
+ * The same sorted layout doubles as an implicit trie for typo-tolerant lookups, see {@link #searchFuzzy}.
+ */
+public final class UsernamePrefixIndex {
+    public static final UsernamePrefixIndex EMPTY = new Builder().build();
+
+    private final byte[] names;
+    private final int[] offsets;
+    private final long[] idMost;
+    private final long[] idLeast;
+    private final long[] scores;
+    /** Iterative segment tree: leaves at {@code [size, 2 * size)}, each node holds the index of its best entry. */
+    private final int[] tree;
+    private final int size;
+    private final int maxNameLength;
+
+    private UsernamePrefixIndex(byte[] names, int[] offsets, long[] idMost, long[] idLeast, long[] scores) {
+        this.names = names;
+        this.offsets = offsets;
+        this.idMost = idMost;
+        this.idLeast = idLeast;
+        this.scores = scores;
+        this.size = scores.length;
+        int maxNameLength = 0;
+        for (int i = 0; i < size; i++) {
+            maxNameLength = Math.max(maxNameLength, offsets[i + 1] - offsets[i]);
+        }
+        this.maxNameLength = maxNameLength;
+        this.tree = new int[Math.max(2, 2 * size)];
+        for (int i = 0; i < size; i++) {
+            tree[size + i] = i;
+        }
+        for (int node = size - 1; node > 0; node--) {
+            tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Gets the number of names in this index.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the highest scored names starting with the given prefix.
+     *
+     * @param prefix   the lowercased prefix
+     * @param limit    the maximum number of matches
+     * @param excluded ids to skip (e.g. players renamed since this index was built)
+     * @return the matches, best first
+     */
+    public List<Match> search(String prefix, int limit, Predicate<UUID> excluded) {
+        if (size == 0 || limit <= 0) {
+            return List.of();
+        }
+        byte[] key = prefix.getBytes(StandardCharsets.UTF_8);
+        int from = lowerBound(key, false);
+        int to = lowerBound(key, true);
+        if (from >= to) {
+            return List.of();
+        }
+
+        List<Match> matches = new ArrayList<>(Math.min(limit, to - from));
+        PriorityQueue<Range> queue = new PriorityQueue<>();
+        queue.add(new Range(from, to, rangeBest(from, to)));
+        while (!queue.isEmpty() && matches.size() < limit) {
+            Range range = queue.poll();
+            int best = range.best();
+            UUID id = new UUID(idMost[best], idLeast[best]);
+            if (!excluded.test(id)) {
+                matches.add(new Match(id, name(best), scores[best]));
+            }
+            if (range.from() < best) {
+                queue.add(new Range(range.from(), best, rangeBest(range.from(), best)));
+            }
+            if (best + 1 < range.to()) {
+                queue.add(new Range(best + 1, range.to(), rangeBest(best + 1, range.to())));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Finds the names within the given edit distance of the query, closest first and then by score.
+     * <p>
+     * The sorted names are walked as an implicit trie: one Levenshtein row per name byte, shared with the previous
+     * name for their common prefix. Once every cell of a row is over the distance, no name under that prefix can
+     * match, and the whole range of names sharing it is skipped with a binary search.
+     *
+     * @param query       the lowercased query
+     * @param maxDistance the maximum edit distance
+     * @param limit       the maximum number of matches
+     * @param excluded    ids to skip (e.g. players renamed since this index was built)
+     * @return the matches, best first
+     */
+    public List<FuzzyMatch> searchFuzzy(String query, int maxDistance, int limit, Predicate<UUID> excluded) {
+        if (size == 0 || limit <= 0) {
+            return List.of();
+        }
+        byte[] key = query.getBytes(StandardCharsets.UTF_8);
+        int n = key.length;
+        int[][] rows = new int[maxNameLength + 1][n + 1];
+        for (int i = 0; i <= n; i++) {
+            rows[0][i] = i;
+        }
+
+        List<int[]> found = new ArrayList<>();
+        int previous = -1;
+        int computed = 0; // Rows of the previous name that are valid
+        int index = 0;
+        while (index < size) {
+            int start = offsets[index];
+            int length = offsets[index + 1] - start;
+            int depth = previous < 0 ? 0 : Math.min(computed, commonPrefix(previous, index));
+            int pruned = -1;
+            while (depth < length) {
+                int[] above = rows[depth];
+                int[] row = rows[depth + 1];
+                byte c = names[start + depth];
+                row[0] = depth + 1;
+                int min = row[0];
+                for (int i = 1; i <= n; i++) {
+                    row[i] = Math.min(Math.min(row[i - 1], above[i]) + 1, above[i - 1] + (key[i - 1] == c ? 0 : 1));
+                    min = Math.min(min, row[i]);
+                }
+                depth++;
+                if (min > maxDistance) {
+                    pruned = depth;
+                    break;
+                }
+            }
+            previous = index;
+            computed = depth;
+            if (pruned >= 0) {
+                index = prefixEnd(index, pruned);
+                continue;
+            }
+            if (rows[length][n] <= maxDistance) {
+                found.add(new int[]{index, rows[length][n]});
+            }
+            index++;
+        }
+
+        found.sort((a, b) -> a[1] != b[1] ? Integer.compare(a[1], b[1]) : Long.compare(scores[b[0]], scores[a[0]]));
+        List<FuzzyMatch> matches = new ArrayList<>(Math.min(limit, found.size()));
+        for (int[] hit : found) {
+            if (matches.size() == limit) {
+                break;
+            }
+            UUID id = new UUID(idMost[hit[0]], idLeast[hit[0]]);
+            if (!excluded.test(id)) {
+                matches.add(new FuzzyMatch(id, name(hit[0]), scores[hit[0]], hit[1]));
+            }
+        }
+        return matches;
+    }
+
+    private int commonPrefix(int a, int b) {
+        int length = Math.min(offsets[a + 1] - offsets[a], offsets[b + 1] - offsets[b]);
+        int mismatch = Arrays.mismatch(names, offsets[a], offsets[a] + length, names, offsets[b], offsets[b] + length);
+        return mismatch < 0 ? length : mismatch;
+    }
+
+    /**
+     * First index after {@code index} whose name doesn't share the first {@code length} bytes of its name.
+     */
+    private int prefixEnd(int index, int length) {
+        byte[] prefix = Arrays.copyOfRange(names, offsets[index], offsets[index] + length);
+        int lo = index + 1;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (comparePrefix(mid, prefix) == 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private String name(int index) {
+        return new String(names, offsets[index], offsets[index + 1] - offsets[index], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * First index whose name is not before the prefix ({@code afterPrefix = false}),
+     * or not before-or-starting-with it ({@code afterPrefix = true}).
+     */
+    private int lowerBound(byte[] prefix, boolean afterPrefix) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = comparePrefix(mid, prefix);
+            if (cmp < 0 || (afterPrefix && cmp == 0)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Compares a name to a prefix, 0 meaning the name starts with it.
+     */
+    private int comparePrefix(int index, byte[] prefix) {
+        int start = offsets[index];
+        int length = offsets[index + 1] - start;
+        int common = Math.min(length, prefix.length);
+        int cmp = Arrays.compareUnsigned(names, start, start + common, prefix, 0, common);
+        if (cmp != 0) {
+            return cmp;
+        }
+        return length >= prefix.length ? 0 : -1;
+    }
+
+    private int rangeBest(int from, int to) {
+        int best = from;
+        for (int l = from + size, r = to + size; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                best = better(best, tree[l++]);
+            }
+            if ((r & 1) == 1) {
+                best = better(best, tree[--r]);
+            }
+        }
+        return best;
+    }
+
+    private int better(int a, int b) {
+        if (scores[a] != scores[b]) {
+            return scores[a] > scores[b] ? a : b;
+        }
+        return Math.min(a, b);
+    }
+
+    private final class Range implements Comparable<Range> {
+        private final int from;
+        private final int to;
+        private final int best;
+
+        private Range(int from, int to, int best) {
+            this.from = from;
+            this.to = to;
+            this.best = best;
+        }
+
+        int from() {
+            return from;
+        }
+
+        int to() {
+            return to;
+        }
+
+        int best() {
+            return best;
+        }
+
+        @Override
+        public int compareTo(Range other) {
+            int cmp = Long.compare(scores[other.best], scores[best]);
+            return cmp != 0 ? cmp : Integer.compare(best, other.best);
+        }
+    }
+
+    /**
+     * @param id       the player's UUID
+     * @param username the lowercased username
+     * @param score    the ranking score
+     */
+    public record Match(UUID id, String username, long score) {}
+
+    /**
+     * @param id       the player's UUID
+     * @param username the lowercased username
+     * @param score    the ranking score
+     * @param distance the edit distance from the query
+     */
+    public record FuzzyMatch(UUID id, String username, long score, int distance) {}
+
+    /**
+     * Collects entries into primitive arrays and sorts them once in {@link #build()}.
+     */
+    public static final class Builder {
+        private byte[] names = new byte[1024];
+        private int namesLength;
+        private int[] offsets = new int[65];
+        private long[] idMost = new long[64];
+        private long[] idLeast = new long[64];
+        private long[] scores = new long[64];
+        private int count;
+
+        public Builder add(UUID id, String username, long score) {
+            byte[] name = username.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+            if (count == scores.length) {
+                int capacity = count * 2;
+                offsets = Arrays.copyOf(offsets, capacity + 1);
+                idMost = Arrays.copyOf(idMost, capacity);
+                idLeast = Arrays.copyOf(idLeast, capacity);
+                scores = Arrays.copyOf(scores, capacity);
+            }
+            if (namesLength + name.length > names.length) {
+                names = Arrays.copyOf(names, Math.max(names.length * 2, namesLength + name.length));
+            }
+            System.arraycopy(name, 0, names, namesLength, name.length);
+            namesLength += name.length;
+            idMost[count] = id.getMostSignificantBits();
+            idLeast[count] = id.getLeastSignificantBits();
+            scores[count] = score;
+            count++;
+            offsets[count] = namesLength;
+            return this;
+        }
+
+        public UsernamePrefixIndex build() {
+            int[] order = new int[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            mergeSort(order, new int[count], 0, count);
+
+            byte[] sortedNames = new byte[namesLength];
+            int[] sortedOffsets = new int[count + 1];
+            long[] sortedMost = new long[count];
+            long[] sortedLeast = new long[count];
+            long[] sortedScores = new long[count];
+            int position = 0;
+            for (int i = 0; i < count; i++) {
+                int source = order[i];
+                int length = offsets[source + 1] - offsets[source];
+                System.arraycopy(names, offsets[source], sortedNames, position, length);
+                sortedOffsets[i] = position;
+                position += length;
+                sortedMost[i] = idMost[source];
+                sortedLeast[i] = idLeast[source];
+                sortedScores[i] = scores[source];
+            }
+            sortedOffsets[count] = position;
+            return new UsernamePrefixIndex(sortedNames, sortedOffsets, sortedMost, sortedLeast, sortedScores);
+        }
+
+        private void mergeSort(int[] order, int[] scratch, int from, int to) {
+            if (to - from < 2) {
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            mergeSort(order, scratch, from, mid);
+            mergeSort(order, scratch, mid, to);
+            if (compare(order[mid - 1], order[mid]) <= 0) {
+                return;
+            }
+            System.arraycopy(order, from, scratch, from, to - from);
+            int left = from;
+            int right = mid;
+            for (int i = from; i < to; i++) {
+                if (right >= to || (left < mid && compare(scratch[left], scratch[right]) <= 0)) {
+                    order[i] = scratch[left++];
+                } else {
+                    order[i] = scratch[right++];
+                }
+            }
+        }
+
+        private int compare(int a, int b) {
+            return Arrays.compareUnsigned(names, offsets[a], offsets[a + 1], names, offsets[b], offsets[b + 1]);
+        }
+    }
+}
@@ -14,9 +14,12 @@ import org.springframework.core.env.Environment;
 import org.springframework.web.filter.ShallowEtagHeaderFilter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import xyz.mcutils.backend.common.net.SubnetMatcher;
 import xyz.mcutils.backend.filter.MetricsAuthFilter;
 import xyz.mcutils.backend.filter.SecurityHeadersFilter;
 
+import java.util.List;
+
 @Getter
 @Slf4j
 @Configuration
@@ -60,7 +63,8 @@ public class AppConfig {
         ShallowEtagHeaderFilter filter = new ShallowEtagHeaderFilter() {
             @Override
             protected boolean shouldNotFilter(HttpServletRequest request) {
-                return request.getRequestURI().endsWith(".png");
+                // Skip images, and streamed responses as the filter would buffer them whole
+                return request.getRequestURI().endsWith(".png") || request.getRequestURI().endsWith("/history");
             }
         };
         FilterRegistrationBean<ShallowEtagHeaderFilter> filterRegistrationBean = new FilterRegistrationBean<>(filter);
@@ -70,6 +74,14 @@ public class AppConfig {
         return filterRegistrationBean;
     }
 
+    /**
+     * The subnets that servers may not resolve to, and that IPs may not be looked up in.
+     */
+    @Bean
+    public SubnetMatcher blacklistedSubnets(@Value("#{'${mc-utils.server-pinger.blacklisted-subnets}'.split(',')}") List<String> subnets) {
+        return SubnetMatcher.compile(subnets);
+    }
+
     @Bean
     public WebMvcConfigurer configureCors() {
         return new WebMvcConfigurer() {
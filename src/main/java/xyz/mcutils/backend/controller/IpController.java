@@ -8,6 +8,8 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import xyz.mcutils.backend.common.net.SubnetMatcher;
+import xyz.mcutils.backend.exception.impl.BadRequestException;
 import xyz.mcutils.backend.model.domain.IpLookup;
 import xyz.mcutils.backend.service.MaxMindService;
 
@@ -17,13 +19,26 @@ import xyz.mcutils.backend.service.MaxMindService;
 public class IpController {
 
     private final MaxMindService maxMindService;
+    private final SubnetMatcher blacklistedSubnets;
 
-    public IpController(MaxMindService maxMindService) {
+    public IpController(MaxMindService maxMindService, SubnetMatcher blacklistedSubnets) {
         this.maxMindService = maxMindService;
+        this.blacklistedSubnets = blacklistedSubnets;
     }
 
     @GetMapping(value = "/{query}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<IpLookup> getIpLookup(@Parameter(description = "The IP address to lookup", example = "127.0.0.1") @PathVariable String query) {
+    public ResponseEntity<IpLookup> getIpLookup(@Parameter(description = "The IP address to lookup", example = "1.1.1.1") @PathVariable String query) {
+        if (isBlacklisted(query)) {
+            throw new BadRequestException("IP address is in a blacklisted subnet");
+        }
         return ResponseEntity.ok().body(maxMindService.lookupIp(query));
     }
+
+    private boolean isBlacklisted(String ip) {
+        try {
+            return blacklistedSubnets.contains(ip);
+        } catch (IllegalArgumentException ex) {
+            return false; // Left for the lookup to reject
+        }
+    }
 }
@@ -10,6 +10,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import xyz.mcutils.backend.common.IPUtils;
+import xyz.mcutils.backend.exception.impl.BadRequestException;
 import xyz.mcutils.backend.model.domain.player.BasicPlayer;
 import xyz.mcutils.backend.model.domain.player.FullPlayer;
 import xyz.mcutils.backend.model.domain.player.PlayerType;
@@ -28,6 +29,11 @@ import java.util.concurrent.TimeUnit;
 @RequestMapping(value = "/players")
 @Tag(name = "Player Controller", description = "The Player Controller is used to get information about a player.")
 public class PlayerController {
+    /**
+     * The longest a Minecraft username can be, longer queries can't match anything.
+     */
+    private static final int MAX_SEARCH_QUERY_LENGTH = 16;
+
     private final PlayerService playerService;
     private final PlayerViewService playerViewService;
     private final PlayerSubmitService playerSubmitService;
@@ -41,8 +47,13 @@ public class PlayerController {
     @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<List<BasicPlayer>> searchPlayers(
             @Parameter(description = "The query to search for (username prefix, case-insensitive)", example = "ImFascinated") @RequestParam String query,
-            @Parameter(description = "The type of player data to return", example = "basic") @RequestParam(defaultValue = "BASIC") PlayerType type) {
-        List<BasicPlayer> entries = this.playerService.searchPlayers(query).stream()
+            @Parameter(description = "The type of player data to return", example = "basic") @RequestParam(defaultValue = "BASIC") PlayerType type,
+            @Parameter(description = "Match usernames within a few typos of the query instead of by prefix", example = "false") @RequestParam(defaultValue = "false") boolean fuzzy) {
+        if (query.length() > MAX_SEARCH_QUERY_LENGTH) {
+            throw new BadRequestException("Query cannot be longer than %s characters".formatted(MAX_SEARCH_QUERY_LENGTH));
+        }
+        List<FullPlayer> players = fuzzy ? this.playerService.fuzzySearchPlayers(query) : this.playerService.searchPlayers(query);
+        List<BasicPlayer> entries = players.stream()
                 .map(player -> type == PlayerType.FULL ? player : BasicPlayer.from(player))
                 .toList();
         return ResponseEntity.ok().body(entries);
@@ -52,8 +63,7 @@ public class PlayerController {
     public ResponseEntity<BasicPlayer> getPlayer(
             @Parameter(description = "The UUID or Username of the player", example = "ImFascinated") @PathVariable String id,
             @Parameter(description = "The type of player data to return", example = "basic") @RequestParam(defaultValue = "BASIC") PlayerType type) {
-        FullPlayer player = FullPlayer.fromRow(this.playerService.getPlayer(id), this.playerService);
-        BasicPlayer result = type == PlayerType.FULL ? player : BasicPlayer.from(player);
+        BasicPlayer result = type == PlayerType.FULL ? this.playerService.getFullPlayer(id) : this.playerService.getBasicPlayer(id);
         return ResponseEntity.ok().cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic()).body(result);
     }
 
@@ -3,20 +3,30 @@ package xyz.mcutils.backend.controller;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import xyz.mcutils.backend.exception.impl.BadRequestException;
 import xyz.mcutils.backend.model.domain.server.Platform;
 import xyz.mcutils.backend.model.domain.serverregistry.ServerRegistryEntry;
+import xyz.mcutils.backend.model.dto.request.ServersBlockedRequest;
 import xyz.mcutils.backend.model.dto.response.ServerBlockedResponse;
+import xyz.mcutils.backend.model.dto.response.ServersBlockedResponse;
 import xyz.mcutils.backend.model.persistence.redis.CachedMinecraftServer;
 import xyz.mcutils.backend.service.MojangService;
+import xyz.mcutils.backend.service.ServerHistoryService;
 import xyz.mcutils.backend.service.ServerRegistryService;
 import xyz.mcutils.backend.service.ServerService;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 @RestController
@@ -27,12 +37,14 @@ public class ServerController {
     private final ServerService serverService;
     private final ServerRegistryService serverRegistryService;
     private final MojangService mojangService;
+    private final ServerHistoryService serverHistoryService;
 
     @Autowired
-    public ServerController(ServerService serverService, ServerRegistryService serverRegistryService, MojangService mojangService) {
+    public ServerController(ServerService serverService, ServerRegistryService serverRegistryService, MojangService mojangService, ServerHistoryService serverHistoryService) {
         this.serverService = serverService;
         this.serverRegistryService = serverRegistryService;
         this.mojangService = mojangService;
+        this.serverHistoryService = serverHistoryService;
     }
 
     @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -47,6 +59,24 @@ public class ServerController {
         return ResponseEntity.ok().cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic()).body(server);
     }
 
+    @GetMapping(value = "/{platform}/{hostname}/history", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getServerHistory(@Parameter(description = "The platform of the server", schema = @Schema(implementation = Platform.class)) @PathVariable String platform,
+                                                                  @Parameter(description = "The hostname and port of the server", example = "aetheria.cc") @PathVariable String hostname,
+                                                                  @Parameter(description = "The resolution of the points: raw, 1m, 1h or 1d", example = "1h") @RequestParam(required = false, defaultValue = "1h") String resolution,
+                                                                  @Parameter(description = "The start of the range, defaults to one day before its end") @RequestParam(required = false) Instant from,
+                                                                  @Parameter(description = "The end of the range, defaults to now") @RequestParam(required = false) Instant to) {
+        ServerHistoryService.Resolution historyResolution = ServerHistoryService.Resolution.byLabel(resolution);
+        if (historyResolution == null) {
+            throw new BadRequestException("Invalid resolution: '%s'".formatted(resolution));
+        }
+        Instant end = to == null ? Instant.now() : to;
+        Instant start = from == null ? end.minus(1, ChronoUnit.DAYS) : from;
+        serverHistoryService.checkRange(historyResolution, start, end);
+        String server = serverService.parseTarget(platform, hostname).cacheKey();
+        StreamingResponseBody body = outputStream -> serverHistoryService.streamHistory(server, historyResolution, start, end, outputStream);
+        return ResponseEntity.ok().cacheControl(CacheControl.maxAge(1, TimeUnit.MINUTES).cachePublic()).body(body);
+    }
+
     @GetMapping(value = "/{hostname}/icon.png", produces = MediaType.IMAGE_PNG_VALUE)
     public ResponseEntity<byte[]> getServerIcon(@Parameter(description = "The hostname and port of the server", example = "aetheria.cc") @PathVariable String hostname) {
         byte[] favicon = serverService.getServerFavicon(hostname);
@@ -64,4 +94,13 @@ public class ServerController {
     public ResponseEntity<ServerBlockedResponse> getServerBlockedStatus(@Parameter(description = "The hostname of the server", example = "aetheria.cc") @PathVariable String hostname) {
         return ResponseEntity.ok().body(new ServerBlockedResponse(this.mojangService.isServerBlocked(hostname)));
     }
+
+    @PostMapping(value = "/blocked", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ServersBlockedResponse> getServersBlockedStatus(@Parameter(description = "The hostnames of the servers") @Valid @RequestBody ServersBlockedRequest request) {
+        Map<String, Boolean> blocked = new LinkedHashMap<>();
+        for (String hostname : request.hostnames()) {
+            blocked.putIfAbsent(hostname, this.mojangService.isServerBlocked(hostname));
+        }
+        return ResponseEntity.ok().body(new ServersBlockedResponse(blocked));
+    }
 }
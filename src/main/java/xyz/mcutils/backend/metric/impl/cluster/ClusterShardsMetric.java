@@ -0,0 +1,35 @@
+package xyz.mcutils.backend.metric.impl.cluster;
+
+import io.prometheus.metrics.core.metrics.GaugeWithCallback;
+import xyz.mcutils.backend.metric.Metric;
+import xyz.mcutils.backend.service.ClusterService;
+import xyz.mcutils.backend.service.MetricService;
+
+/**
+ * Exposes the shards this node owns and when its cluster heartbeat last succeeded.
+ * A node owning no shards runs no background refreshes.
+ */
+public class ClusterShardsMetric extends Metric<ClusterShardsMetric.Holder> {
+
+    public ClusterShardsMetric(ClusterService clusterService) {
+        super(new Holder(
+                GaugeWithCallback.builder()
+                        .name("cluster_owned_shards")
+                        .help("Number of shards this node currently owns")
+                        .callback(callback -> callback.call(clusterService.getOwnedShards().length))
+                        .register(MetricService.REGISTRY),
+                GaugeWithCallback.builder()
+                        .name("cluster_live_nodes")
+                        .help("Number of live nodes seen by this node's last heartbeat")
+                        .callback(callback -> callback.call(clusterService.getLiveNodeCount()))
+                        .register(MetricService.REGISTRY),
+                GaugeWithCallback.builder()
+                        .name("cluster_last_heartbeat_timestamp_seconds")
+                        .help("When this node's cluster heartbeat last succeeded, 0 if it never has")
+                        .callback(callback -> callback.call(clusterService.getLastHeartbeatAt() / 1000.0))
+                        .register(MetricService.REGISTRY)
+        ));
+    }
+
+    public record Holder(GaugeWithCallback ownedShards, GaugeWithCallback liveNodes, GaugeWithCallback lastHeartbeat) {}
+}
@@ -6,14 +6,15 @@ import xyz.mcutils.backend.metric.Metric;
 import xyz.mcutils.backend.service.MetricService;
 
 /**
- * Tracks DNS SRV and A query outcomes and latency.
- * Cache hits are counted but excluded from the duration histogram.
+ * Tracks DNS SRV, A and AAAA query outcomes and latency.
+ * Cache hits, positive and negative, are counted but excluded from the duration histogram.
  */
 public class DnsQueryMetric extends Metric<DnsQueryMetric.Holder> {
 
     public enum QueryType {
         SRV("srv"),
-        A("a");
+        A("a"),
+        AAAA("aaaa");
 
         private final String label;
 
@@ -28,8 +29,10 @@ public class DnsQueryMetric extends Metric<DnsQueryMetric.Holder> {
 
     public enum Result {
         CACHE_HIT("cache_hit"),
+        NEGATIVE_CACHE_HIT("negative_cache_hit"),
         RESOLVED("resolved"),
-        NOT_FOUND("not_found");
+        NOT_FOUND("not_found"),
+        ERROR("error");
 
         private final String label;
 
@@ -60,7 +63,7 @@ public class DnsQueryMetric extends Metric<DnsQueryMetric.Holder> {
 
     public void record(QueryType type, Result result, long durationMs) {
         getValue().counter.labelValues(type.label(), result.label()).inc();
-        if (result != Result.CACHE_HIT) {
+        if (result != Result.CACHE_HIT && result != Result.NEGATIVE_CACHE_HIT) {
             getValue().histogram.labelValues(type.label()).observe(durationMs);
         }
     }
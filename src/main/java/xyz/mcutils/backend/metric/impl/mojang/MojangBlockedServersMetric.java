@@ -16,7 +16,7 @@ public class MojangBlockedServersMetric extends Metric<MojangBlockedServersMetri
                 GaugeWithCallback.builder()
                         .name("mojang_blocked_servers_count")
                         .help("Number of server hashes currently blocked by Mojang")
-                        .callback(callback -> callback.call(mojangService.getBlockedServerHashes().size()))
+                        .callback(callback -> callback.call(mojangService.getBlockedServers().size()))
                         .register(MetricService.REGISTRY)
         ));
     }
@@ -0,0 +1,30 @@
+package xyz.mcutils.backend.metric.impl.mojang;
+
+import io.prometheus.metrics.core.metrics.GaugeWithCallback;
+import xyz.mcutils.backend.metric.Metric;
+import xyz.mcutils.backend.service.MetricService;
+import xyz.mcutils.backend.service.MojangService;
+
+/**
+ * Exposes the adaptive concurrency limit for Mojang profile lookups
+ * and how much of it is in use.
+ */
+public class MojangConcurrencyLimitMetric extends Metric<MojangConcurrencyLimitMetric.Holder> {
+
+    public MojangConcurrencyLimitMetric(MojangService mojangService) {
+        super(new Holder(
+                GaugeWithCallback.builder()
+                        .name("mojang_profile_concurrency_limit")
+                        .help("Current adaptive limit of concurrent Mojang profile lookups")
+                        .callback(callback -> callback.call(mojangService.getProfileConcurrencyLimiter().getLimit()))
+                        .register(MetricService.REGISTRY),
+                GaugeWithCallback.builder()
+                        .name("mojang_profile_in_flight")
+                        .help("Mojang profile lookups currently in flight")
+                        .callback(callback -> callback.call(mojangService.getProfileConcurrencyLimiter().getInFlight()))
+                        .register(MetricService.REGISTRY)
+        ));
+    }
+
+    public record Holder(GaugeWithCallback limit, GaugeWithCallback inFlight) {}
+}
@@ -0,0 +1,52 @@
+package xyz.mcutils.backend.metric.impl.server;
+
+import io.prometheus.metrics.core.metrics.Counter;
+import io.prometheus.metrics.core.metrics.Histogram;
+import xyz.mcutils.backend.metric.Metric;
+import xyz.mcutils.backend.service.MetricService;
+
+/**
+ * Tracks the background server crawler: pings by result and how long each crawl takes.
+ */
+public class ServerCrawlerMetric extends Metric<ServerCrawlerMetric.Holder> {
+    public enum Result {
+        SUCCESS("success"),
+        FAILURE("failure"),
+        BACKING_OFF("backing_off");
+
+        private final String label;
+
+        Result(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    public ServerCrawlerMetric() {
+        super(new Holder(
+                Counter.builder()
+                        .name("server_crawler_pings_total")
+                        .help("Servers pinged (or skipped while backing off) by the background crawler")
+                        .labelNames("result")
+                        .register(MetricService.REGISTRY),
+                Histogram.builder()
+                        .name("server_crawl_duration_milliseconds")
+                        .help("Time taken to ping every server of one crawl")
+                        .classicUpperBounds(1000, 2500, 5000, 10000, 20000, 30000, 60000)
+                        .register(MetricService.REGISTRY)
+        ));
+    }
+
+    public void record(Result result) {
+        getValue().pings.labelValues(result.label()).inc();
+    }
+
+    public void recordCrawl(long durationMs) {
+        getValue().crawlDuration.observe(durationMs);
+    }
+
+    public record Holder(Counter pings, Histogram crawlDuration) {}
+}
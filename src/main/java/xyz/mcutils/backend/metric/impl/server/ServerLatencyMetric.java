@@ -0,0 +1,31 @@
+package xyz.mcutils.backend.metric.impl.server;
+
+import io.prometheus.metrics.core.metrics.Histogram;
+import xyz.mcutils.backend.metric.Metric;
+import xyz.mcutils.backend.service.MetricService;
+
+/**
+ * Tracks the latency measured by server pings, per server of the registry. Every other server
+ * shares the "other" label, or the label set would grow with every hostname looked up.
+ */
+public class ServerLatencyMetric extends Metric<Histogram> {
+    public static final String OTHER_SERVER = "other";
+
+    public ServerLatencyMetric() {
+        super(Histogram.builder()
+                .name("server_latency_milliseconds")
+                .help("Round trip time of the protocol ping to a server")
+                .labelNames("platform", "server")
+                .classicUpperBounds(5, 10, 25, 50, 75, 100, 150, 250, 500, 1000, 2500)
+                .register(MetricService.REGISTRY));
+    }
+
+    /**
+     * @param platform  the server's platform
+     * @param server    the server's registry id, or null if it is not in the registry
+     * @param latencyMs the measured latency
+     */
+    public void record(String platform, String server, long latencyMs) {
+        getValue().labelValues(platform, server == null ? OTHER_SERVER : server).observe(latencyMs);
+    }
+}
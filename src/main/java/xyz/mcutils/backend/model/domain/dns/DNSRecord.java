@@ -23,6 +23,6 @@ public abstract class DNSRecord {
      * Types of a record.
      */
     public enum Type {
-        A, SRV
+        A, AAAA, SRV
     }
 }
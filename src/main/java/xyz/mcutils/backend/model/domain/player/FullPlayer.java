@@ -8,7 +8,6 @@ import xyz.mcutils.backend.model.domain.player.history.UsernameHistory;
 import xyz.mcutils.backend.model.domain.skin.Skin;
 import xyz.mcutils.backend.model.persistence.postgres.CapeRow;
 import xyz.mcutils.backend.model.persistence.postgres.PlayerRow;
-import xyz.mcutils.backend.service.PlayerService;
 
 import java.time.Instant;
 import java.util.Set;
@@ -42,7 +41,8 @@ public class FullPlayer extends BasicPlayer {
     private Set<UsernameHistory> usernameHistory;
     private Instant lastUpdated;
 
-    public static FullPlayer fromRow(PlayerRow playerRow, PlayerService playerService) {
+    public static FullPlayer fromRow(PlayerRow playerRow, Set<Skin> skinHistory, Set<VanillaCape> capeHistory,
+                                     Set<UsernameHistory> usernameHistory) {
         CapeRow cape = playerRow.getCape();
         return FullPlayer.builder()
                 .uniqueId(playerRow.getId())
@@ -53,9 +53,9 @@ public class FullPlayer extends BasicPlayer {
                 .legacyAccount(playerRow.isLegacyAccount())
                 .submittedUuids(playerRow.getSubmittedUuids())
                 .monthlyViews(playerRow.getMonthlyViews())
-                .skinHistory(playerService.getSkinHistory(playerRow))
-                .capeHistory(playerService.getCapeHistory(playerRow))
-                .usernameHistory(playerService.getUsernameHistory(playerRow))
+                .skinHistory(skinHistory)
+                .capeHistory(capeHistory)
+                .usernameHistory(usernameHistory)
                 .lastUpdated(playerRow.getLastUpdated())
                 .build();
     }
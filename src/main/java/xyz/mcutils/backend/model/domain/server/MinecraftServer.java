@@ -51,6 +51,14 @@ public class MinecraftServer {
      */
     private Players players;
 
+    /**
+     * The round trip time to the server in milliseconds, timed
+     * around the protocol's ping and pong, null if the server
+     * did not answer the ping.
+     */
+    @Nullable
+    private Long latency;
+
     /**
      * The location of the server.
      */
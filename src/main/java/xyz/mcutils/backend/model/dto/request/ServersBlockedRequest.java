@@ -0,0 +1,14 @@
+package xyz.mcutils.backend.model.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Request body for checking the blocked status of several servers at once.
+ *
+ * @param hostnames the hostnames of the servers
+ */
+public record ServersBlockedRequest(@NotEmpty @Size(min = 1, max = 1_000) List<@NotBlank String> hostnames) {}
@@ -0,0 +1,10 @@
+package xyz.mcutils.backend.model.dto.response;
+
+import java.util.Map;
+
+/**
+ * The response for the bulk server blocked status endpoint.
+ *
+ * @param blocked Whether each server is blocked, by hostname, in the order requested.
+ */
+public record ServersBlockedResponse(Map<String, Boolean> blocked) {}
@@ -0,0 +1,12 @@
+package xyz.mcutils.backend.model.persistence.postgres;
+
+import java.util.UUID;
+
+/**
+ * Lightweight projection of a player used to build the in-memory search indexes.
+ *
+ * @param id           the player's UUID
+ * @param username     the player's current username
+ * @param monthlyViews the player's monthly views, used for ranking
+ */
+public record PlayerNameRow(UUID id, String username, long monthlyViews) {}
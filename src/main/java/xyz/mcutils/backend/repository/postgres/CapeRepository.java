@@ -4,13 +4,34 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import xyz.mcutils.backend.model.persistence.postgres.CapeRow;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 public interface CapeRepository extends JpaRepository<CapeRow, Long> {
     Optional<CapeRow> findByTextureId(String textureId);
 
+    @Query(nativeQuery = true, value = "SELECT * FROM capes WHERE texture_id = ANY(CAST(:textureIds AS varchar[]))")
+    List<CapeRow> findAllByTextureIds(@Param("textureIds") String[] textureIds);
+
+    /**
+     * Inserts every texture id that is not tracked yet in a single statement.
+     * Rows that already exist are left untouched; only the texture ids of newly inserted rows are returned.
+     */
+    @Query(nativeQuery = true, value = """
+        INSERT INTO capes (texture_id, unique_owners, first_seen, first_seen_using_player_id)
+        SELECT t.texture_id, 0, :firstSeen, t.player_id
+        FROM unnest(CAST(:textureIds AS varchar[]), CAST(:playerIds AS uuid[])) AS t(texture_id, player_id)
+        ON CONFLICT (texture_id) DO NOTHING
+        RETURNING texture_id
+        """)
+    List<String> insertMissing(@Param("textureIds") String[] textureIds, @Param("playerIds") UUID[] playerIds,
+                               @Param("firstSeen") Instant firstSeen);
+
     @Query("SELECT c FROM CapeRow c ORDER BY c.uniqueOwners DESC, c.id ASC")
     Slice<CapeRow> findAllOrderByUniqueOwnersDescIdAsc(Pageable pageable);
 
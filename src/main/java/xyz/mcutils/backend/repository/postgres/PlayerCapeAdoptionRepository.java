@@ -6,6 +6,7 @@ import org.springframework.data.repository.query.Param;
 import xyz.mcutils.backend.model.persistence.postgres.PlayerCapeAdoptionId;
 import xyz.mcutils.backend.model.persistence.postgres.PlayerCapeAdoptionRow;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -17,4 +18,12 @@ public interface PlayerCapeAdoptionRepository extends JpaRepository<PlayerCapeAd
             ORDER BY a.firstSeen ASC
             """)
     List<PlayerCapeAdoptionRow> findByPlayerIdOrderByFirstSeenAsc(@Param("playerId") UUID playerId);
+
+    @Query("""
+            SELECT a FROM PlayerCapeAdoptionRow a
+            JOIN FETCH a.cape
+            WHERE a.playerId IN :playerIds
+            ORDER BY a.firstSeen ASC
+            """)
+    List<PlayerCapeAdoptionRow> findByPlayerIdsWithCape(@Param("playerIds") Collection<UUID> playerIds);
 }
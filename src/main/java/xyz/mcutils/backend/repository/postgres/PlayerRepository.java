@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
+import xyz.mcutils.backend.model.persistence.postgres.PlayerNameRow;
 import xyz.mcutils.backend.model.persistence.postgres.PlayerRow;
 import xyz.mcutils.backend.model.persistence.postgres.SkinRow;
 
@@ -22,8 +23,28 @@ public interface PlayerRepository extends JpaRepository<PlayerRow, UUID> {
     @Query("SELECT p FROM PlayerRow p WHERE p.nextRefreshAt < :now ORDER BY p.nextRefreshAt ASC, p.id ASC")
     List<PlayerRow> findDueForRefresh(@Param("now") Instant now, Pageable pageable);
 
+    /**
+     * Same as {@link #findDueForRefresh(Instant, Pageable)}, limited to the players hashing into the given shards.
+     */
+    @Query(nativeQuery = true, value = """
+        SELECT * FROM players
+        WHERE next_refresh_at < :now
+          AND (hashtext(CAST(id AS text)) & 2147483647) % :shardCount = ANY(CAST(:shards AS int[]))
+        ORDER BY next_refresh_at ASC, id ASC
+        LIMIT :limit
+        """)
+    List<PlayerRow> findDueForRefreshInShards(@Param("now") Instant now, @Param("shardCount") int shardCount,
+                                              @Param("shards") Integer[] shards, @Param("limit") int limit);
+
     long countByNextRefreshAtBefore(Instant now);
 
+    /**
+     * Keyset-paginated scan of every player's name, for building the in-memory search indexes.
+     */
+    @Query("SELECT new xyz.mcutils.backend.model.persistence.postgres.PlayerNameRow(p.id, p.username, p.monthlyViews) " +
+            "FROM PlayerRow p WHERE p.id > :after ORDER BY p.id ASC")
+    List<PlayerNameRow> findNamesAfter(@Param("after") UUID after, Pageable pageable);
+
     @Query("SELECT p.username FROM PlayerRow p WHERE p.skin.id = :skinId")
     List<String> findUsernamesBySkinId(long skinId, Pageable pageable);
 
@@ -1,12 +1,23 @@
 package xyz.mcutils.backend.repository.postgres;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import xyz.mcutils.backend.model.persistence.postgres.PlayerSkinAdoptionId;
 import xyz.mcutils.backend.model.persistence.postgres.PlayerSkinAdoptionRow;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface PlayerSkinAdoptionRepository extends JpaRepository<PlayerSkinAdoptionRow, PlayerSkinAdoptionId> {
     List<PlayerSkinAdoptionRow> findByPlayerIdOrderByFirstSeenAsc(UUID playerId);
+
+    @Query("""
+            SELECT a FROM PlayerSkinAdoptionRow a
+            JOIN FETCH a.skin
+            WHERE a.playerId IN :playerIds
+            ORDER BY a.firstSeen ASC
+            """)
+    List<PlayerSkinAdoptionRow> findByPlayerIdsWithSkin(@Param("playerIds") Collection<UUID> playerIds);
 }
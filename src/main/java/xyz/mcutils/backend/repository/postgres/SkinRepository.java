@@ -9,12 +9,33 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 import xyz.mcutils.backend.model.persistence.postgres.SkinRow;
 
+import java.time.Instant;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 public interface SkinRepository extends JpaRepository<SkinRow, Long> {
     Optional<SkinRow> findByTextureId(String textureId);
 
+    @Query(nativeQuery = true, value = "SELECT * FROM skins WHERE texture_id = ANY(CAST(:textureIds AS varchar[]))")
+    List<SkinRow> findAllByTextureIds(@Param("textureIds") String[] textureIds);
+
+    /**
+     * Inserts every texture id that is not tracked yet in a single statement.
+     * Rows that already exist are left untouched; only the texture ids of newly inserted rows are returned.
+     * Callers should pass texture ids in a stable order so concurrent batches lock the unique index in the same order.
+     */
+    @Query(nativeQuery = true, value = """
+        INSERT INTO skins (texture_id, model, legacy, unique_owners, trending_heat, first_seen, first_seen_using_player_id)
+        SELECT t.texture_id, CAST(t.model AS skin_model), FALSE, 0, 0, :firstSeen, t.player_id
+        FROM unnest(CAST(:textureIds AS varchar[]), CAST(:models AS varchar[]), CAST(:playerIds AS uuid[])) AS t(texture_id, model, player_id)
+        ON CONFLICT (texture_id) DO NOTHING
+        RETURNING texture_id
+        """)
+    List<String> insertMissing(@Param("textureIds") String[] textureIds, @Param("models") String[] models,
+                               @Param("playerIds") UUID[] playerIds, @Param("firstSeen") Instant firstSeen);
+
     @Query("SELECT s FROM SkinRow s")
     Slice<SkinRow> findAllSkins(Pageable pageable);
 
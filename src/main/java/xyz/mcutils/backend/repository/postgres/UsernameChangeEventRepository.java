@@ -5,11 +5,12 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import xyz.mcutils.backend.model.persistence.postgres.UsernameChangeEventRow;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface UsernameChangeEventRepository extends JpaRepository<UsernameChangeEventRow, Long> {
-    List<UsernameChangeEventRow> findByPlayerIdOrderByTimestampDesc(UUID playerId);
+    List<UsernameChangeEventRow> findByPlayerIdInOrderByTimestampDesc(Collection<UUID> playerIds);
 
     @Query("SELECT COUNT(e) FROM UsernameChangeEventRow e WHERE e.previousUsername IS NOT NULL")
     long countNameChanges();
@@ -3,6 +3,8 @@ package xyz.mcutils.backend.service;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.PageRequest;
@@ -10,6 +12,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.support.TransactionTemplate;
 import xyz.mcutils.backend.Main;
 import xyz.mcutils.backend.common.*;
@@ -28,15 +31,14 @@ import xyz.mcutils.backend.repository.postgres.PlayerRepository;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.time.Instant;
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
 
 @Service
 @Slf4j
 public class CapeService {
     public static final int CAPES_PER_PAGE = 50;
+    public static final String CAPE_BY_TEXTURE_ID_CACHE = "capeByTextureId";
     public static CapeService INSTANCE;
 
     private final StorageService storageService;
@@ -48,6 +50,8 @@ public class CapeService {
     private final CoalescingLoader<String, byte[]> textureLoader = new CoalescingLoader<>(Main.EXECUTOR);
     private final CoalescingLoader<String, CapeRow> capeCreationLoader = new CoalescingLoader<>(Runnable::run);
     private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate bulkTransactionTemplate;
+    private final CacheManager cacheManager;
     @Value("${mc-utils.renderer.cape.cache}")
     private boolean cacheEnabled;
 
@@ -65,7 +69,7 @@ public class CapeService {
 
     public CapeService(StorageService storageService, @Lazy PlayerService playerService, StatisticsService statisticsService,
                        CapeRepository capeRepository, PlayerRepository playerRepository, WebRequest webRequest,
-                       PlatformTransactionManager transactionManager) {
+                       PlatformTransactionManager transactionManager, CacheManager cacheManager) {
         this.storageService = storageService;
         this.playerService = playerService;
         this.statisticsService = statisticsService;
@@ -73,6 +77,10 @@ public class CapeService {
         this.playerRepository = playerRepository;
         this.webRequest = webRequest;
         this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Own transaction so rows are committed before they are put in the texture cache
+        this.bulkTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.bulkTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.cacheManager = cacheManager;
     }
 
     @PostConstruct
@@ -124,7 +132,7 @@ public class CapeService {
      * Cached variant of {@link #getOrCreateCape(CapeTextureToken, UUID)}.
      * Cache key is the texture ID only; {@code playerId} is only relevant on first insert.
      */
-    @Cacheable(value = "capeByTextureId", key = "#token.textureId")
+    @Cacheable(value = CAPE_BY_TEXTURE_ID_CACHE, key = "#token.textureId")
     public CapeRow getOrCreateCapeCached(CapeTextureToken token, UUID playerId) {
         return getOrCreateCape(token, playerId);
     }
@@ -145,6 +153,58 @@ public class CapeService {
         }));
     }
 
+    /**
+     * Bulk variant of {@link #getOrCreateCape(CapeTextureToken, UUID)} for submit and refresh batches.
+     * Textures already in the {@value #CAPE_BY_TEXTURE_ID_CACHE} cache are served from it; the rest are resolved
+     * with one {@code INSERT ... ON CONFLICT DO NOTHING RETURNING} and one {@code SELECT ... = ANY(?)}.
+     *
+     * @param tokens the cape tokens, each paired with the player first seen using it (only used on first insert)
+     * @return the cape rows keyed by texture id
+     */
+    public Map<String, CapeRow> getOrCreateCapes(Collection<Tuple<CapeTextureToken, UUID>> tokens) {
+        Cache cache = this.cacheManager.getCache(CAPE_BY_TEXTURE_ID_CACHE);
+        Map<String, CapeRow> result = new HashMap<>();
+        TreeMap<String, Tuple<CapeTextureToken, UUID>> missing = new TreeMap<>(); // Sorted so concurrent batches lock in the same order
+        for (Tuple<CapeTextureToken, UUID> token : tokens) {
+            String textureId = token.left().getTextureId();
+            if (textureId == null || result.containsKey(textureId) || missing.containsKey(textureId)) {
+                continue;
+            }
+            Cache.ValueWrapper cached = cache != null ? cache.get(textureId) : null;
+            if (cached != null && cached.get() instanceof CapeRow row) {
+                result.put(textureId, row);
+            } else {
+                missing.put(textureId, token);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        String[] textureIds = missing.keySet().toArray(new String[0]);
+        UUID[] playerIds = missing.values().stream().map(Tuple::right).toArray(UUID[]::new);
+        Tuple<List<String>, List<CapeRow>> resolved = this.bulkTransactionTemplate.execute(_ -> new Tuple<>(
+                this.capeRepository.insertMissing(textureIds, playerIds, Instant.now()),
+                this.capeRepository.findAllByTextureIds(textureIds)
+        ));
+        assert resolved != null;
+        for (CapeRow row : resolved.right()) {
+            result.put(row.getTextureId(), row);
+            if (cache != null) {
+                cache.put(row.getTextureId(), row);
+            }
+        }
+
+        List<String> inserted = resolved.left();
+        if (!inserted.isEmpty()) {
+            StatisticsService.addTrackedCapeCount(inserted.size());
+            for (String textureId : inserted) {
+                notifyNewCapeDiscovered(missing.get(textureId).left(), result.get(textureId));
+            }
+        }
+        return result;
+    }
+
     private void notifyNewCapeDiscovered(CapeTextureToken token, CapeRow newCape) {
         try {
             DiscordWebhook discordWebhook = new DiscordWebhook(newCapeDiscoveredWebhook);
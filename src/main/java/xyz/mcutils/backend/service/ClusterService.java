@@ -0,0 +1,233 @@
+package xyz.mcutils.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits background player work between the backend replicas.
+ * <p>
+ * Players are hashed into {@code mc-utils.cluster.shards} shards. Every node heartbeats into a Redis sorted set
+ * and holds a lease ({@code SET NX PX}) on roughly {@code shards / liveNodes} shards, renewing the ones it owns
+ * and releasing any surplus when new nodes join. Leases of dead nodes expire and get picked up by the rest.
+ */
+@Service
+@Slf4j
+public class ClusterService {
+    private static final String NODES_KEY = "cluster:nodes";
+    private static final String SHARD_KEY_PREFIX = "cluster:shard:";
+
+    /** Renews the lease only if we still hold it. */
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            return 0
+            """, Long.class);
+
+    /** Releases the lease only if we still hold it. */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    public static ClusterService INSTANCE;
+
+    private final RedisTemplate<String, String> redis;
+
+    /**
+     * The id of this node, unique per process.
+     */
+    @Getter
+    private final String nodeId;
+
+    @Value("${mc-utils.cluster.enabled:true}")
+    private boolean enabled;
+
+    @Getter
+    @Value("${mc-utils.cluster.shards:64}")
+    private int shardCount;
+
+    @Value("${mc-utils.cluster.lease-ttl-ms:15000}")
+    private long leaseTtlMs;
+
+    /** Shards currently leased by this node, replaced wholesale on every heartbeat. */
+    private volatile int[] ownedShards = new int[0];
+
+    /** When the leases renewed by the last successful heartbeat run out, in epoch millis. */
+    private volatile long leasesExpireAt;
+
+    /** When the last heartbeat succeeded, in epoch millis, 0 if none has yet. */
+    @Getter
+    private volatile long lastHeartbeatAt;
+
+    @Getter
+    private volatile int liveNodeCount = 1;
+
+    public ClusterService(@Qualifier("queueRedisTemplate") RedisTemplate<String, String> redis) {
+        this.redis = redis;
+        this.nodeId = resolveHostname() + "-" + Long.toHexString(ThreadLocalRandom.current().nextLong());
+    }
+
+    @PostConstruct
+    public void init() {
+        INSTANCE = this;
+        if (!enabled) {
+            this.ownedShards = allShards();
+            return;
+        }
+        heartbeat();
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void onContextClosed() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            for (int shard : ownedShards) {
+                release(shard);
+            }
+            redis.opsForZSet().remove(NODES_KEY, nodeId);
+        } catch (Exception e) {
+            log.warn("Failed to release cluster leases on shutdown: {}", e.toString());
+        }
+        this.ownedShards = new int[0];
+    }
+
+    /**
+     * Refreshes this node's heartbeat and rebalances its shard leases.
+     * <p>
+     * While Redis is unreachable the node keeps its shards until their leases would have expired,
+     * then drops them, as by then other nodes may have claimed them.
+     */
+    @Scheduled(fixedDelayString = "${mc-utils.cluster.heartbeat-interval-ms:5000}")
+    public void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            renewLeases();
+        } catch (Exception e) {
+            if (lastHeartbeatAt == 0) {
+                log.warn("Cluster heartbeat failed, this node owns no shards and runs no background work until it succeeds: {}", e.toString());
+            } else if (ownedShards.length > 0 && System.currentTimeMillis() >= leasesExpireAt) {
+                log.warn("Cluster heartbeat failing since {}, dropping {} shards whose leases have expired: {}",
+                        Instant.ofEpochMilli(lastHeartbeatAt), ownedShards.length, e.toString());
+                this.ownedShards = new int[0];
+            } else {
+                log.warn("Cluster heartbeat failed, retrying on schedule: {}", e.toString());
+            }
+        }
+    }
+
+    private void renewLeases() {
+        long now = System.currentTimeMillis();
+        redis.opsForZSet().add(NODES_KEY, nodeId, now);
+        redis.opsForZSet().removeRangeByScore(NODES_KEY, 0, now - leaseTtlMs);
+        Long live = redis.opsForZSet().zCard(NODES_KEY);
+        int liveNodes = live == null || live < 1 ? 1 : live.intValue();
+        int target = Math.ceilDiv(shardCount, liveNodes);
+
+        // Keep what we still hold
+        TreeSet<Integer> owned = new TreeSet<>();
+        for (int shard : ownedShards) {
+            if (renew(shard)) {
+                owned.add(shard);
+            }
+        }
+
+        // Hand back the surplus so joining nodes can take it
+        while (owned.size() > target) {
+            release(owned.pollLast());
+        }
+
+        // Claim free shards, starting at a node-specific offset so nodes don't race for the same ones
+        if (owned.size() < target) {
+            int start = Math.floorMod(nodeId.hashCode(), shardCount);
+            for (int i = 0; i < shardCount && owned.size() < target; i++) {
+                int shard = (start + i) % shardCount;
+                if (!owned.contains(shard) && acquire(shard)) {
+                    owned.add(shard);
+                }
+            }
+        }
+
+        int[] updated = owned.stream().mapToInt(Integer::intValue).toArray();
+        if (!Arrays.equals(updated, ownedShards) || liveNodes != liveNodeCount) {
+            log.info("Cluster node {} now owns {}/{} shards ({} live nodes)", nodeId, updated.length, shardCount, liveNodes);
+        }
+        this.ownedShards = updated;
+        this.liveNodeCount = liveNodes;
+        this.leasesExpireAt = now + leaseTtlMs; // Renewals happened after now, so they last at least this long
+        this.lastHeartbeatAt = now;
+    }
+
+    /**
+     * Gets the shards this node is currently responsible for.
+     *
+     * @return a copy of the owned shard ids
+     */
+    public int[] getOwnedShards() {
+        if (enabled && System.currentTimeMillis() >= leasesExpireAt) {
+            return new int[0]; // Between a failed heartbeat and the next one, the leases may already be gone
+        }
+        return ownedShards.clone();
+    }
+
+    /**
+     * Gets this node's share of a cluster-wide rate budget.
+     *
+     * @param globalRate the rate for the whole cluster
+     * @return the rate this node should use
+     */
+    public double shareOf(double globalRate) {
+        return globalRate / Math.max(1, liveNodeCount);
+    }
+
+    private boolean acquire(int shard) {
+        return Boolean.TRUE.equals(redis.opsForValue().setIfAbsent(SHARD_KEY_PREFIX + shard, nodeId, leaseTtlMs, TimeUnit.MILLISECONDS));
+    }
+
+    private boolean renew(int shard) {
+        Long result = redis.execute(RENEW_SCRIPT, List.of(SHARD_KEY_PREFIX + shard), nodeId, String.valueOf(leaseTtlMs));
+        return result != null && result == 1L;
+    }
+
+    private void release(int shard) {
+        redis.execute(RELEASE_SCRIPT, List.of(SHARD_KEY_PREFIX + shard), nodeId);
+    }
+
+    private int[] allShards() {
+        int[] shards = new int[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = i;
+        }
+        return shards;
+    }
+
+    private static String resolveHostname() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "node";
+        }
+    }
+}
@@ -1,23 +1,47 @@
 package xyz.mcutils.backend.service;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import lombok.NonNull;
-import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.xbill.DNS.DClass;
 import org.xbill.DNS.Lookup;
+import org.xbill.DNS.Message;
+import org.xbill.DNS.Name;
+import org.xbill.DNS.Rcode;
 import org.xbill.DNS.Record;
+import org.xbill.DNS.Resolver;
+import org.xbill.DNS.SOARecord;
+import org.xbill.DNS.Section;
+import org.xbill.DNS.TextParseException;
 import org.xbill.DNS.Type;
 import xyz.mcutils.backend.metric.impl.dns.DnsQueryMetric;
 import xyz.mcutils.backend.model.domain.dns.DNSRecord;
+import xyz.mcutils.backend.model.domain.dns.impl.AAAARecord;
 import xyz.mcutils.backend.model.domain.dns.impl.ARecord;
 import xyz.mcutils.backend.model.domain.dns.impl.SRVRecord;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * Resolves the SRV, A and AAAA records of servers.
+ * <p>
+ * Answers are cached for the TTL of their records, within the configured bounds. Negative answers,
+ * NXDOMAIN or no records of the type, are cached too, for the TTL their SOA record gives (RFC 2308),
+ * most Java servers have no SRV record and would otherwise query it on every lookup. Answers that
+ * are looked up again late in their TTL are refreshed in the background, so popular names do not
+ * expire from the cache.
+ *
  * @author Braydon
  */
 @Slf4j
@@ -27,10 +51,60 @@ public class DNSService {
      * The prefix to use for Minecraft Java SRV queries.
      */
     private static final String SRV_QUERY_PREFIX = "_minecraft._tcp.%s";
-    private final Cache<DnsCacheKey, DNSRecord> objectCache;
+    private static final int MAX_CACHED_ANSWERS = 100_000;
+    /**
+     * How long to wait for the AAAA answer once the A records are in (RFC 8305 section 3).
+     */
+    private static final long RESOLUTION_DELAY_MS = 50;
+
+    private final Resolver resolver = Lookup.getDefaultResolver();
+
+    /**
+     * The cached answers, each expiring after its own TTL, null if caching is disabled.
+     */
+    private final Cache<DnsCacheKey, CachedAnswer> answerCache;
+
+    /**
+     * The queries waiting on the resolver, concurrent lookups of the same name share one.
+     */
+    private final Map<DnsCacheKey, CompletableFuture<CachedAnswer>> pendingQueries = new ConcurrentHashMap<>();
+
+    private final long minTtl;
+    private final long maxTtl;
+    private final long maxNegativeTtl;
+    private final double prefetchThreshold;
+    private final int prefetchMinHits;
+
+    public DNSService(@Value("${mc-utils.cache.dns.enabled}") boolean cacheEnabled,
+                      @Value("${mc-utils.cache.dns.min-ttl:30}") long minTtl,
+                      @Value("${mc-utils.cache.dns.max-ttl:3600}") long maxTtl,
+                      @Value("${mc-utils.cache.dns.max-negative-ttl:900}") long maxNegativeTtl,
+                      @Value("${mc-utils.cache.dns.prefetch-threshold:0.8}") double prefetchThreshold,
+                      @Value("${mc-utils.cache.dns.prefetch-min-hits:2}") int prefetchMinHits) {
+        this.minTtl = minTtl;
+        this.maxTtl = maxTtl;
+        this.maxNegativeTtl = maxNegativeTtl;
+        this.prefetchThreshold = prefetchThreshold;
+        this.prefetchMinHits = prefetchMinHits;
+        this.answerCache = cacheEnabled ? Caffeine.newBuilder()
+                .maximumSize(MAX_CACHED_ANSWERS)
+                .expireAfter(new Expiry<DnsCacheKey, CachedAnswer>() {
+                    @Override
+                    public long expireAfterCreate(DnsCacheKey key, CachedAnswer answer, long currentTime) {
+                        return answer.ttlNanos;
+                    }
 
-    public DNSService(@Value("${mc-utils.cache.dns.enabled}") boolean cacheEnabled, @Value("${mc-utils.cache.dns.ttl}") int objectCacheTtl) {
-        this.objectCache = cacheEnabled ? CacheBuilder.newBuilder().expireAfterWrite(objectCacheTtl, TimeUnit.MINUTES).build() : null;
+                    @Override
+                    public long expireAfterUpdate(DnsCacheKey key, CachedAnswer answer, long currentTime, long currentDuration) {
+                        return answer.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(DnsCacheKey key, CachedAnswer answer, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build() : null;
     }
 
     /**
@@ -40,61 +114,184 @@ public class DNSService {
      * @param hostname the hostname to resolve
      * @return the resolved address and port, null if none
      */
-    @SneakyThrows
     public SRVRecord resolveSRV(@NonNull String hostname) {
-        DNSRecord dnsRecord = objectCache != null ? objectCache.getIfPresent(new DnsCacheKey(hostname.toUpperCase(), Type.SRV)) : null;
-        if (dnsRecord != null) {
-            MetricService.getMetric(DnsQueryMetric.class).record(DnsQueryMetric.QueryType.SRV, DnsQueryMetric.Result.CACHE_HIT, 0);
-            return (SRVRecord) dnsRecord;
-        }
+        return resolveSRVAsync(hostname).join();
+    }
 
-        long start = System.currentTimeMillis();
-        Record[] records = new Lookup(SRV_QUERY_PREFIX.formatted(hostname), Type.SRV).run(); // Resolve SRV records
-        if (records == null) { // No records exist
-            MetricService.getMetric(DnsQueryMetric.class).record(DnsQueryMetric.QueryType.SRV, DnsQueryMetric.Result.NOT_FOUND, System.currentTimeMillis() - start);
-            return null;
+    /**
+     * Get the resolved address and port of the given hostname
+     * by resolving the SRV records, without blocking.
+     *
+     * @param hostname the hostname to resolve
+     * @return the resolved address and port, null if none
+     */
+    public CompletableFuture<SRVRecord> resolveSRVAsync(@NonNull String hostname) {
+        return lookup(hostname, Type.SRV, DnsQueryMetric.QueryType.SRV).thenApply(records -> records.isEmpty() ? null : (SRVRecord) records.getLast());
+    }
+
+    /**
+     * Get the resolved addresses of the given hostname by resolving
+     * its A and AAAA records at once, without blocking.
+     * <p>
+     * The addresses alternate between the families, starting with IPv4 (RFC 8305 section 4).
+     * IPv4 goes first as plenty of hostnames only serve Minecraft over IPv4, with AAAA records
+     * that point at a web proxy. Once the A records are in, the AAAA query only gets the
+     * resolution delay of RFC 8305 section 3 to answer, a slow or lost AAAA query does not hold
+     * up the connection. Its answer is still cached for the next lookup.
+     *
+     * @param hostname the hostname to resolve
+     * @return the A and AAAA records, empty if none
+     */
+    public CompletableFuture<List<DNSRecord>> resolveAddressesAsync(@NonNull String hostname) {
+        CompletableFuture<List<DNSRecord>> ipv4 = lookup(hostname, Type.A, DnsQueryMetric.QueryType.A);
+        CompletableFuture<List<DNSRecord>> ipv6 = lookup(hostname, Type.AAAA, DnsQueryMetric.QueryType.AAAA);
+        return ipv4.thenCompose(aRecords -> {
+            if (aRecords.isEmpty()) {
+                return ipv6; // Nothing to connect to yet, wait for the only family there may be
+            }
+            return ipv6.completeOnTimeout(List.of(), RESOLUTION_DELAY_MS, TimeUnit.MILLISECONDS)
+                    .thenApply(aaaaRecords -> interleave(aRecords, aaaaRecords));
+        });
+    }
+
+    private static List<DNSRecord> interleave(List<DNSRecord> aRecords, List<DNSRecord> aaaaRecords) {
+        List<DNSRecord> records = new ArrayList<>(aRecords.size() + aaaaRecords.size());
+        for (int i = 0; i < Math.max(aRecords.size(), aaaaRecords.size()); i++) {
+            if (i < aRecords.size()) {
+                records.add(aRecords.get(i));
+            }
+            if (i < aaaaRecords.size()) {
+                records.add(aaaaRecords.get(i));
+            }
         }
-        SRVRecord result = null;
-        for (Record record : records) {
-            result = new SRVRecord((org.xbill.DNS.SRVRecord) record);
+        return records;
+    }
+
+    /**
+     * Get the address of an A or AAAA record.
+     *
+     * @param record the record
+     * @return the address, null if the record has none
+     */
+    public static String getAddress(@NonNull DNSRecord record) {
+        return switch (record) {
+            case ARecord aRecord -> aRecord.getAddress();
+            case AAAARecord aaaaRecord -> aaaaRecord.getAddress();
+            default -> null;
+        };
+    }
+
+    /**
+     * Gets the records of a hostname from the cache, or the resolver.
+     *
+     * @param hostname   the hostname to look up
+     * @param type       the type of the records
+     * @param metricType the query type to record the lookup as
+     * @return the records, empty if none
+     */
+    private CompletableFuture<List<DNSRecord>> lookup(String hostname, int type, DnsQueryMetric.QueryType metricType) {
+        DnsCacheKey key = new DnsCacheKey(hostname.toUpperCase(), type);
+        CachedAnswer cached = answerCache != null ? answerCache.getIfPresent(key) : null;
+        if (cached == null) {
+            return query(key, metricType).thenApply(answer -> answer.records);
         }
-        if (objectCache != null && result != null) {
-            objectCache.put(new DnsCacheKey(hostname.toUpperCase(), Type.SRV), result);
+        MetricService.getMetric(DnsQueryMetric.class).record(metricType, cached.records.isEmpty() ? DnsQueryMetric.Result.NEGATIVE_CACHE_HIT : DnsQueryMetric.Result.CACHE_HIT, 0);
+        if (cached.hits.incrementAndGet() >= prefetchMinHits
+                && System.nanoTime() - cached.createdNanos >= cached.ttlNanos * prefetchThreshold
+                && cached.prefetching.compareAndSet(false, true)) {
+            query(key, metricType).thenAccept(answer -> {
+                if (answer.ttlNanos == 0) {
+                    cached.prefetching.set(false); // Not cached, the next hit tries again
+                }
+            });
         }
-        MetricService.getMetric(DnsQueryMetric.class).record(DnsQueryMetric.QueryType.SRV, DnsQueryMetric.Result.RESOLVED, System.currentTimeMillis() - start);
-        return result;
+        return CompletableFuture.completedFuture(cached.records);
     }
 
     /**
-     * Get the resolved address of the given
-     * hostname by resolving the A records.
+     * Queries the resolver and caches the answer, joining the query
+     * already waiting on the resolver for the same key if there is one.
      *
-     * @param hostname the hostname to resolve
-     * @return the resolved address, null if none
+     * @param key        the key of the query
+     * @param metricType the query type to record the query as
+     * @return the answer
      */
-    @SneakyThrows
-    public ARecord resolveA(@NonNull String hostname) {
-        DNSRecord dnsRecord = objectCache != null ? objectCache.getIfPresent(new DnsCacheKey(hostname.toUpperCase(), Type.A)) : null;
-        if (dnsRecord != null) {
-            MetricService.getMetric(DnsQueryMetric.class).record(DnsQueryMetric.QueryType.A, DnsQueryMetric.Result.CACHE_HIT, 0);
-            return (ARecord) dnsRecord;
+    private CompletableFuture<CachedAnswer> query(DnsCacheKey key, DnsQueryMetric.QueryType metricType) {
+        CompletableFuture<CachedAnswer> pending = new CompletableFuture<>();
+        CompletableFuture<CachedAnswer> existing = pendingQueries.putIfAbsent(key, pending);
+        if (existing != null) {
+            return existing;
         }
+        send(key, metricType).whenComplete((answer, ex) -> {
+            if (answer != null && answerCache != null && answer.ttlNanos > 0) {
+                answerCache.put(key, answer);
+            }
+            pendingQueries.remove(key, pending);
+            if (ex != null) {
+                pending.completeExceptionally(ex);
+            } else {
+                pending.complete(answer);
+            }
+        });
+        return pending;
+    }
 
+    /**
+     * Sends a query to the resolver without blocking.
+     * <p>
+     * The resolver is recursive, so the answer already follows any CNAME chain, only the records
+     * of the queried type are kept. Failed queries complete with no records, like a lookup would,
+     * and are not cached.
+     *
+     * @param key        the key of the query
+     * @param metricType the query type to record the query as
+     * @return the answer
+     */
+    private CompletableFuture<CachedAnswer> send(DnsCacheKey key, DnsQueryMetric.QueryType metricType) {
         long start = System.currentTimeMillis();
-        Record[] records = new Lookup(hostname, Type.A).run(); // Resolve A records
-        if (records == null) { // No records exist
-            MetricService.getMetric(DnsQueryMetric.class).record(DnsQueryMetric.QueryType.A, DnsQueryMetric.Result.NOT_FOUND, System.currentTimeMillis() - start);
-            return null;
-        }
-        ARecord result = null;
-        for (Record record : records) {
-            result = new ARecord((org.xbill.DNS.ARecord) record);
+        String name = key.type() == Type.SRV ? SRV_QUERY_PREFIX.formatted(key.hostname()) : key.hostname();
+        Message query;
+        try {
+            query = Message.newQuery(Record.newRecord(Name.fromString(name, Name.root), key.type(), DClass.IN));
+        } catch (TextParseException ex) {
+            MetricService.getMetric(DnsQueryMetric.class).record(metricType, DnsQueryMetric.Result.NOT_FOUND, 0);
+            return CompletableFuture.completedFuture(new CachedAnswer(List.of(), 0));
         }
-        if (objectCache != null && result != null) {
-            objectCache.put(new DnsCacheKey(hostname.toUpperCase(), Type.A), result);
-        }
-        MetricService.getMetric(DnsQueryMetric.class).record(DnsQueryMetric.QueryType.A, DnsQueryMetric.Result.RESOLVED, System.currentTimeMillis() - start);
-        return result;
+        return resolver.sendAsync(query).toCompletableFuture().handle((response, ex) -> {
+            long duration = System.currentTimeMillis() - start;
+            int rcode = ex == null ? response.getRcode() : Rcode.SERVFAIL;
+            if (rcode != Rcode.NOERROR && rcode != Rcode.NXDOMAIN) {
+                log.debug("DNS query for {} ({}) failed: {}", name, Type.string(key.type()), ex != null ? ex.getMessage() : Rcode.string(rcode));
+                MetricService.getMetric(DnsQueryMetric.class).record(metricType, DnsQueryMetric.Result.ERROR, duration);
+                return new CachedAnswer(List.of(), 0);
+            }
+
+            List<DNSRecord> records = new ArrayList<>();
+            long ttl = Long.MAX_VALUE;
+            if (rcode == Rcode.NOERROR) {
+                for (Record record : response.getSection(Section.ANSWER)) {
+                    ttl = Math.min(ttl, record.getTTL()); // CNAMEs on the way expire the answer too
+                    switch (record) {
+                        case org.xbill.DNS.SRVRecord srvRecord when key.type() == Type.SRV -> records.add(new SRVRecord(srvRecord));
+                        case org.xbill.DNS.ARecord aRecord when key.type() == Type.A -> records.add(new ARecord(aRecord));
+                        case org.xbill.DNS.AAAARecord aaaaRecord when key.type() == Type.AAAA -> records.add(new AAAARecord(aaaaRecord));
+                        default -> {}
+                    }
+                }
+            }
+            MetricService.getMetric(DnsQueryMetric.class).record(metricType, records.isEmpty() ? DnsQueryMetric.Result.NOT_FOUND : DnsQueryMetric.Result.RESOLVED, duration);
+            if (!records.isEmpty()) {
+                return new CachedAnswer(records, Math.clamp(ttl, minTtl, maxTtl));
+            }
+
+            // Negative answers are cached for the SOA's TTL or minimum, whichever is lower, without one they are not
+            for (Record record : response.getSection(Section.AUTHORITY)) {
+                if (record instanceof SOARecord soa) {
+                    return new CachedAnswer(List.of(), Math.clamp(Math.min(soa.getTTL(), soa.getMinimum()), Math.min(minTtl, maxNegativeTtl), maxNegativeTtl));
+                }
+            }
+            return new CachedAnswer(List.of(), 0);
+        });
     }
 
     /**
@@ -104,4 +301,24 @@ public class DNSService {
      * @param type     the type of the record
      */
     public record DnsCacheKey(String hostname, int type) {}
-}
\ No newline at end of file
+
+    /**
+     * A cached answer, positive or negative.
+     */
+    private static final class CachedAnswer {
+        private final List<DNSRecord> records;
+        private final long ttlNanos;
+        private final long createdNanos = System.nanoTime();
+        private final AtomicInteger hits = new AtomicInteger();
+        private final AtomicBoolean prefetching = new AtomicBoolean();
+
+        /**
+         * @param records    the records of the answer, empty if negative
+         * @param ttlSeconds how long to cache the answer for, 0 to not cache it
+         */
+        private CachedAnswer(List<DNSRecord> records, long ttlSeconds) {
+            this.records = records;
+            this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package xyz.mcutils.backend.service;
 
-import com.google.common.util.concurrent.RateLimiter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.cache.CacheManager;
@@ -29,29 +28,29 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * Background worker that resolves 64×32 legacy skin status for newly tracked skins.
  * Queue payloads are skin {@code textureId} strings.
  */
-@SuppressWarnings("UnstableApiUsage")
 @Service
 @Slf4j
 public class LegacySkinCheckService {
 
     private static final String QUEUE_NAME = "legacy-skin-check-queue";
     private static final int BATCH_SIZE = 500;
-    private static final int RATE_LIMIT = 100;
     private static final Duration EMPTY_QUEUE_BLOCK = Duration.ofSeconds(2);
     private static final String SKIN_TEXTURE_CACHE = "skinByTextureId";
 
-    private final RateLimiter rateLimiter = RateLimiter.create(RATE_LIMIT);
     private final RedisQueue checkQueue;
     private final SkinRepository skinRepository;
     private final WebRequest webRequest;
     private final CacheManager cacheManager;
+    private final MojangRateLimitService rateLimitService;
     private final AtomicBoolean running = new AtomicBoolean(true);
 
-    public LegacySkinCheckService(RedisQueueFactory queueFactory, SkinRepository skinRepository, WebRequest webRequest, CacheManager cacheManager) {
+    public LegacySkinCheckService(RedisQueueFactory queueFactory, SkinRepository skinRepository, WebRequest webRequest, CacheManager cacheManager,
+                                  MojangRateLimitService rateLimitService) {
         this.checkQueue = queueFactory.getQueue(QUEUE_NAME);
         this.skinRepository = skinRepository;
         this.webRequest = webRequest;
         this.cacheManager = cacheManager;
+        this.rateLimitService = rateLimitService;
     }
 
     @EventListener(ContextClosedEvent.class)
@@ -126,7 +125,7 @@ public class LegacySkinCheckService {
             if (textureId == null || textureId.isBlank()) {
                 continue;
             }
-            rateLimiter.acquire();
+            rateLimitService.acquire(MojangRateLimitService.Priority.LEGACY_CHECK);
             futures.add(Main.EXECUTOR.submit(() -> {
                 results.add(checkLegacy(textureId.trim()));
                 return null;
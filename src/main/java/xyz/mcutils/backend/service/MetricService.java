@@ -9,11 +9,15 @@ import xyz.mcutils.backend.metric.impl.api.ExternalApiRequestsMetric;
 import xyz.mcutils.backend.metric.impl.api.RequestsMetric;
 import xyz.mcutils.backend.metric.impl.cape.CapeRenderMetric;
 import xyz.mcutils.backend.metric.impl.cape.TrackedCapesMetric;
+import xyz.mcutils.backend.metric.impl.cluster.ClusterShardsMetric;
 import xyz.mcutils.backend.metric.impl.dns.DnsQueryMetric;
 import xyz.mcutils.backend.metric.impl.ip.IpLookupMetric;
 import xyz.mcutils.backend.metric.impl.jvm.*;
 import xyz.mcutils.backend.metric.impl.mojang.MojangBlockedServersMetric;
+import xyz.mcutils.backend.metric.impl.mojang.MojangConcurrencyLimitMetric;
 import xyz.mcutils.backend.metric.impl.player.*;
+import xyz.mcutils.backend.metric.impl.server.ServerCrawlerMetric;
+import xyz.mcutils.backend.metric.impl.server.ServerLatencyMetric;
 import xyz.mcutils.backend.metric.impl.server.ServerLookupMetric;
 import xyz.mcutils.backend.metric.impl.skin.SkinRenderMetric;
 import xyz.mcutils.backend.metric.impl.skin.TrackedSkinsMetric;
@@ -29,7 +33,7 @@ public class MetricService {
     public static final PrometheusRegistry REGISTRY = new PrometheusRegistry();
     private static final Map<Class<?>, Metric<?>> metrics = new ConcurrentHashMap<>();
 
-    public MetricService(@Lazy PlayerSubmitService playerSubmitService, @Lazy PlayerService playerService, @Lazy MojangService mojangService, @Lazy StatisticsService statisticsService) {
+    public MetricService(@Lazy PlayerSubmitService playerSubmitService, @Lazy PlayerService playerService, @Lazy MojangService mojangService, @Lazy StatisticsService statisticsService, @Lazy ClusterService clusterService) {
         // DNS
         this.registerMetric(new DnsQueryMetric());
 
@@ -72,9 +76,15 @@ public class MetricService {
 
         // Server
         this.registerMetric(new ServerLookupMetric());
+        this.registerMetric(new ServerCrawlerMetric());
+        this.registerMetric(new ServerLatencyMetric());
 
         // Mojang
         this.registerMetric(new MojangBlockedServersMetric(mojangService));
+        this.registerMetric(new MojangConcurrencyLimitMetric(mojangService));
+
+        // Cluster
+        this.registerMetric(new ClusterShardsMetric(clusterService));
 
         // WebSocket
         this.registerMetric(new WebSocketConnectionsMetric());
@@ -0,0 +1,157 @@
+package xyz.mcutils.backend.service;
+
+import com.google.common.util.concurrent.RateLimiter;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import xyz.mcutils.backend.common.redis.RedisTokenBucket;
+import xyz.mcutils.backend.exception.impl.RateLimitException;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cluster-wide budget for outbound Mojang requests, shared by every consumer on every node.
+ * <p>
+ * Background priorities take tokens from Redis in batches and keep them locally, and they have to leave a
+ * reserve in the bucket, so interactive lookups still find tokens while the background loops are saturating it.
+ * If Redis is unreachable, a local limiter at this node's share of the budget takes over.
+ */
+@SuppressWarnings("UnstableApiUsage")
+@Service
+@Slf4j
+public class MojangRateLimitService {
+    private static final String BUCKET_KEY = "mojang-rate-limit";
+    private static final Duration MAX_WAIT = Duration.ofSeconds(1);
+    /** How long to stay on the local limiter after Redis failed, rather than failing a round trip per request. */
+    private static final Duration BUCKET_RETRY_DELAY = Duration.ofSeconds(1);
+
+    private final ClusterService clusterService;
+    private final RedisTokenBucket bucket;
+    private final RateLimiter fallbackLimiter;
+    private final Map<Priority, LocalTokens> localTokens = new EnumMap<>(Priority.class);
+    private final Duration interactiveMaxWait;
+    private volatile long bucketUnavailableUntil;
+
+    public MojangRateLimitService(@Qualifier("queueRedisTemplate") RedisTemplate<String, String> redis, ClusterService clusterService,
+                                  @Value("${mc-utils.mojang.rate-limit:600}") double rateLimit,
+                                  @Value("${mc-utils.mojang.interactive-max-wait-ms:2000}") long interactiveMaxWaitMs) {
+        this.clusterService = clusterService;
+        this.interactiveMaxWait = Duration.ofMillis(interactiveMaxWaitMs);
+        this.bucket = new RedisTokenBucket(redis, BUCKET_KEY, rateLimit, Math.max(1, (long) rateLimit));
+        this.fallbackLimiter = RateLimiter.create(rateLimit);
+        for (Priority priority : Priority.values()) {
+            this.localTokens.put(priority, new LocalTokens());
+        }
+    }
+
+    /**
+     * Blocks until a request with the given priority may be sent.
+     * <p>
+     * Interactive requests wait at most {@code mc-utils.mojang.interactive-max-wait-ms}, a user is waiting on them.
+     *
+     * @param priority the priority of the request
+     * @throws RateLimitException if an interactive request could not get a token in time
+     */
+    public void acquire(Priority priority) {
+        LocalTokens local = this.localTokens.get(priority);
+        boolean bounded = priority == Priority.INTERACTIVE;
+        long deadline = System.nanoTime() + this.interactiveMaxWait.toNanos();
+        while (true) {
+            // Only the local tokens are guarded, Redis round trips and sleeps happen outside the lock
+            synchronized (local) {
+                if (local.available > 0) {
+                    local.available--;
+                    return;
+                }
+            }
+            if (System.currentTimeMillis() < this.bucketUnavailableUntil) {
+                acquireFallback(bounded, deadline);
+                return;
+            }
+            long waitMs;
+            try {
+                int batch = priority.getBatchSize(this.bucket.ratePerSecond());
+                long reserve = (long) (this.bucket.capacity() * priority.getReserveFraction());
+                RedisTokenBucket.Grant grant = this.bucket.tryTake(batch, reserve);
+                if (grant.granted() > 0) {
+                    if (grant.granted() > 1) {
+                        synchronized (local) {
+                            local.available += grant.granted() - 1;
+                        }
+                    }
+                    return;
+                }
+                waitMs = Math.max(1, Math.min(grant.waitMs(), MAX_WAIT.toMillis()));
+            } catch (Exception e) {
+                log.debug("Mojang rate limit bucket unavailable, using local limiter: {}", e.toString());
+                this.bucketUnavailableUntil = System.currentTimeMillis() + BUCKET_RETRY_DELAY.toMillis();
+                acquireFallback(bounded, deadline);
+                return;
+            }
+            if (bounded && System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMs) - deadline > 0) {
+                throw new RateLimitException("Mojang rate limit reached, try again shortly");
+            }
+            try {
+                Thread.sleep(waitMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a Mojang rate limit token", e);
+            }
+        }
+    }
+
+    /**
+     * Takes a permit from the local limiter, running at this node's share of the budget.
+     */
+    private void acquireFallback(boolean bounded, long deadline) {
+        double rate = this.clusterService.shareOf(this.bucket.ratePerSecond());
+        if (this.fallbackLimiter.getRate() != rate) {
+            this.fallbackLimiter.setRate(rate);
+        }
+        if (!bounded) {
+            this.fallbackLimiter.acquire();
+        } else if (!this.fallbackLimiter.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+            throw new RateLimitException("Mojang rate limit reached, try again shortly");
+        }
+    }
+
+    /**
+     * Priorities of Mojang requests, highest first.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public enum Priority {
+        /**
+         * A user is waiting on the response, never batched and may drain the bucket.
+         */
+        INTERACTIVE(0, 0),
+        SUBMIT(0.1, 0.05),
+        REFRESH(0.2, 0.05),
+        LEGACY_CHECK(0.3, 0.02);
+
+        /**
+         * The share of the bucket this priority must leave for higher ones.
+         */
+        private final double reserveFraction;
+
+        /**
+         * The share of the rate taken per round trip to Redis.
+         */
+        private final double batchFraction;
+
+        int getBatchSize(double rate) {
+            return Math.max(1, (int) (rate * batchFraction));
+        }
+    }
+
+    private static final class LocalTokens {
+        private int available;
+    }
+}
@@ -1,35 +1,27 @@
 package xyz.mcutils.backend.service;
 
-import com.google.common.base.Joiner;
-import com.google.common.base.Splitter;
-import com.google.common.collect.Lists;
-import com.google.common.hash.Hashing;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
+import xyz.mcutils.backend.common.AdaptiveConcurrencyLimiter;
+import xyz.mcutils.backend.common.BlockedServerList;
 import xyz.mcutils.backend.common.WebRequest;
+import xyz.mcutils.backend.exception.impl.RateLimitException;
 import xyz.mcutils.backend.metric.impl.api.ExternalApiRequestsMetric;
 import xyz.mcutils.backend.model.token.mojang.MojangProfileToken;
 import xyz.mcutils.backend.model.token.mojang.MojangUsernameToUuidToken;
 
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.Duration;
 
 @Service
 @Slf4j
 @Getter
 public class MojangService {
-    /**
-     * The splitter and joiner for dots.
-     */
-    private static final Splitter DOT_SPLITTER = Splitter.on('.');
-    private static final Joiner DOT_JOINER = Joiner.on('.');
-
     /**
      * The Mojang API endpoints.
      */
@@ -39,40 +31,105 @@ public class MojangService {
     private static final String API_MOJANG = "mojang";
 
     /**
-     * A list of banned server hashes provided by Mojang.
+     * The list of banned server hashes provided by Mojang.
      * <p>
      * This is periodically fetched from Mojang, see
      * {@link #updateBlockedServers()} for more info.
      * </p>
      */
-    private final Set<String> blockedServerHashes = ConcurrentHashMap.newKeySet();
+    private volatile BlockedServerList blockedServers = BlockedServerList.EMPTY;
 
     private final WebRequest webRequest;
+    private final MojangRateLimitService rateLimitService;
+
+    /**
+     * Limits concurrent profile lookups, backing off when
+     * Mojang starts rate limiting or slowing down.
+     */
+    private final AdaptiveConcurrencyLimiter profileConcurrencyLimiter;
 
-    public MojangService(WebRequest webRequest) {
+    public MojangService(WebRequest webRequest, MojangRateLimitService rateLimitService,
+                         @Value("${mc-utils.mojang.concurrency.initial:40}") int initialConcurrency,
+                         @Value("${mc-utils.mojang.concurrency.min:4}") int minConcurrency,
+                         @Value("${mc-utils.mojang.concurrency.max:100}") int maxConcurrency,
+                         @Value("${mc-utils.mojang.concurrency.max-latency-ms:3000}") long maxLatencyMs) {
         this.webRequest = webRequest;
+        this.rateLimitService = rateLimitService;
+        this.profileConcurrencyLimiter = new AdaptiveConcurrencyLimiter(initialConcurrency, minConcurrency, maxConcurrency,
+                0.5, Duration.ofMillis(maxLatencyMs), Duration.ofSeconds(1));
         updateBlockedServers();
     }
 
     /**
      * Gets the Session Server profile of the
-     * player with the given UUID.
+     * player with the given UUID for a waiting user.
      *
      * @param id the uuid or name of the player
      * @return the profile
      */
     public MojangProfileToken getProfile(String id) {
+        return getProfile(id, MojangRateLimitService.Priority.INTERACTIVE);
+    }
+
+    /**
+     * Gets the Session Server profile of the
+     * player with the given UUID.
+     *
+     * @param id       the uuid or name of the player
+     * @param priority the priority to take the rate limit token with
+     * @return the profile
+     */
+    public MojangProfileToken getProfile(String id, MojangRateLimitService.Priority priority) {
+        // Interactive lookups have their own connection pool, so they skip the background concurrency limit
+        boolean interactive = priority == MojangRateLimitService.Priority.INTERACTIVE;
+        // Permit before token, so a shared rate limit token is never spent by a thread that then has to wait
+        AdaptiveConcurrencyLimiter.Permit permit = interactive ? null : acquireProfilePermit(id);
+        try {
+            rateLimitService.acquire(priority);
+        } catch (RuntimeException e) {
+            if (permit != null) {
+                permit.ignore();
+            }
+            throw e;
+        }
+        if (permit != null) {
+            permit.startTiming(); // The token wait isn't Mojang's latency
+        }
         long start = System.currentTimeMillis();
         boolean success = false;
         try {
-            MojangProfileToken result = webRequest.request(SESSION_SERVER_ENDPOINT + "/session/minecraft/profile/" + id).useProxy().as(MojangProfileToken.class);
+            WebRequest.RequestBuilder request = webRequest.request(SESSION_SERVER_ENDPOINT + "/session/minecraft/profile/" + id).useProxy();
+            if (interactive) {
+                request.interactive();
+            }
+            MojangProfileToken result = request.as(MojangProfileToken.class);
             success = result != null;
+            if (permit != null) {
+                permit.success();
+            }
             return result;
+        } catch (RateLimitException | ResourceAccessException e) {
+            if (permit != null) {
+                permit.dropped();
+            }
+            throw e;
         } finally {
+            if (permit != null) {
+                permit.ignore(); // No-op unless an unexpected exception skipped the outcomes above
+            }
             MetricService.getMetric(ExternalApiRequestsMetric.class).record(API_MOJANG, "player_lookup", success, System.currentTimeMillis() - start);
         }
     }
 
+    private AdaptiveConcurrencyLimiter.Permit acquireProfilePermit(String id) {
+        try {
+            return profileConcurrencyLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to look up profile " + id, e);
+        }
+    }
+
     /**
      * Gets the UUID of the player using
      * the name of the player.
@@ -81,10 +138,11 @@ public class MojangService {
      * @return the profile
      */
     public MojangUsernameToUuidToken getUuidFromUsername(String id) {
+        rateLimitService.acquire(MojangRateLimitService.Priority.INTERACTIVE);
         long start = System.currentTimeMillis();
         boolean success = false;
         try {
-            MojangUsernameToUuidToken result = webRequest.request(API_ENDPOINT + "/users/profiles/minecraft/" + id).useProxy().as(MojangUsernameToUuidToken.class);
+            MojangUsernameToUuidToken result = webRequest.request(API_ENDPOINT + "/users/profiles/minecraft/" + id).useProxy().interactive().as(MojangUsernameToUuidToken.class);
             success = result != null;
             return result;
         } finally {
@@ -92,18 +150,6 @@ public class MojangService {
         }
     }
 
-    /**
-     * Check if the hash for the given
-     * hostname is in the blocked server list.
-     *
-     * @param hostname the hostname to check
-     * @return whether the hostname is blocked
-     */
-    @SuppressWarnings("deprecation")
-    private boolean isServerHostnameBlocked(@NonNull String hostname) {
-        return blockedServerHashes.contains(Hashing.sha1().hashBytes(hostname.toLowerCase().getBytes(StandardCharsets.ISO_8859_1)).toString());
-    }
-
     /**
      * Check if the server with the
      * given hostname is blocked by Mojang.
@@ -112,51 +158,11 @@ public class MojangService {
      * @return whether the hostname is blocked
      */
     public boolean isServerBlocked(@NonNull String hostname) {
-        if (hostname.isEmpty()) {
-            return false;
-        }
-
-        // Remove trailing dots
-        while (hostname.charAt(hostname.length() - 1) == '.') {
-            hostname = hostname.substring(0, hostname.length() - 1);
-        }
-        // Is the hostname banned?
-        if (isServerHostnameBlocked(hostname)) {
-            return true;
-        }
-        List<String> splitDots = Lists.newArrayList(DOT_SPLITTER.split(hostname)); // Split the hostname by dots
-        boolean isIp = splitDots.size() == 4; // Is it an IP address?
-        if (isIp) {
-            for (String element : splitDots) {
-                try {
-                    int part = Integer.parseInt(element);
-                    if (part >= 0 && part <= 255) { // Ensure the part is within the valid range
-                        continue;
-                    }
-                } catch (NumberFormatException ignored) {
-                    // Safely ignore, not a number
-                }
-                isIp = false;
-                break;
-            }
-        }
-        // Check if the hostname is blocked
-        if (!isIp && isServerHostnameBlocked("*." + hostname)) {
-            return true;
-        }
-        // Additional checks for the hostname
-        while (splitDots.size() > 1) {
-            splitDots.remove(isIp ? splitDots.size() - 1 : 0);
-            String starredPart = isIp ? DOT_JOINER.join(splitDots) + ".*" : "*." + DOT_JOINER.join(splitDots);
-            if (isServerHostnameBlocked(starredPart)) {
-                return true;
-            }
-        }
-        return false;
+        return blockedServers.isBlocked(hostname);
     }
 
     /**
-     * Fetches the current list of banned server hashes from Mojang and updates {@link #blockedServerHashes}.
+     * Fetches the current list of banned server hashes from Mojang and replaces {@link #blockedServers}.
      * Runs daily at midnight. Uses the shared HTTP client (connection pooling, proxy if configured).
      */
     @Scheduled(cron = "0 0 0 * * *")
@@ -167,9 +173,7 @@ public class MojangService {
             log.error("Failed to fetch blocked servers from Mojang");
             return;
         }
-        List<String> hashes = Arrays.asList(new String(bytes, StandardCharsets.UTF_8).split("\n"));
-        blockedServerHashes.clear();
-        blockedServerHashes.addAll(hashes);
-        log.info("Fetched {} blocked server hashes", blockedServerHashes.size());
+        blockedServers = BlockedServerList.parse(new String(bytes, StandardCharsets.UTF_8));
+        log.info("Fetched {} blocked server hashes", blockedServers.size());
     }
 }
@@ -0,0 +1,205 @@
+package xyz.mcutils.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import xyz.mcutils.backend.common.UUIDUtils;
+import xyz.mcutils.backend.model.domain.player.BasicPlayer;
+import xyz.mcutils.backend.model.domain.player.FullPlayer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Hot cache of assembled player views, keyed by UUID with a lowercase username index in front of it.
+ * <p>
+ * Entries are dropped locally and on every other node (over Redis pub/sub) whenever the player is written.
+ * A load that started before an invalidation is not cached, so a slow read can't put stale data back.
+ */
+@Service
+@Slf4j
+public class PlayerCacheService {
+    private static final String INVALIDATION_CHANNEL = "player-cache-invalidate";
+    private static final Duration ENTRY_TTL = Duration.ofMinutes(10);
+
+    private final RedisTemplate<String, String> redis;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Value("${mc-utils.cache.player.enabled:true}")
+    private boolean enabled;
+
+    @Value("${mc-utils.cache.player.max-weight:250000}")
+    private long maxWeight;
+
+    private Cache<UUID, CachedPlayer> players;
+    private Cache<String, UUID> usernames;
+    /** When each player was last invalidated, kept long enough to reject loads that raced with it. */
+    private final Cache<UUID, Long> invalidatedAt = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMinutes(1))
+            .build();
+
+    public PlayerCacheService(@Qualifier("queueRedisTemplate") RedisTemplate<String, String> redis,
+                              RedisMessageListenerContainer listenerContainer) {
+        this.redis = redis;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @PostConstruct
+    public void init() {
+        this.players = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((UUID id, CachedPlayer cached) -> cached.weight())
+                .expireAfterWrite(ENTRY_TTL)
+                .build();
+        this.usernames = Caffeine.newBuilder()
+                .maximumSize(maxWeight)
+                .expireAfterWrite(ENTRY_TTL)
+                .build();
+        if (enabled) {
+            this.listenerContainer.addMessageListener((message, pattern) ->
+                    onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)), new ChannelTopic(INVALIDATION_CHANNEL));
+        }
+    }
+
+    /**
+     * Gets a cached player by UUID or username.
+     *
+     * @param query the UUID or username of the player
+     * @return the cached player, or null if not cached
+     */
+    public CachedPlayer get(String query) {
+        if (!enabled) {
+            return null;
+        }
+        UUID id = query.length() <= 16 ? this.usernames.getIfPresent(query.toLowerCase(Locale.ROOT)) : UUIDUtils.parseUuid(query);
+        return id != null ? this.players.getIfPresent(id) : null;
+    }
+
+    /**
+     * Gets the token to pass to {@link #put(BasicPlayer, Instant, long)} for a load starting now.
+     */
+    public long startLoad() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Caches an assembled player, unless it was invalidated after the load started.
+     * A {@link FullPlayer} replaces whatever is cached, a basic one never replaces a full one.
+     *
+     * @param player        the player view
+     * @param nextRefreshAt when the player is due to be refreshed from Mojang
+     * @param loadStarted   the value of {@link #startLoad()} before the player was read
+     */
+    public void put(BasicPlayer player, Instant nextRefreshAt, long loadStarted) {
+        if (!enabled) {
+            return;
+        }
+        Long invalidated = this.invalidatedAt.getIfPresent(player.getUniqueId());
+        if (invalidated != null && invalidated - loadStarted >= 0) {
+            return;
+        }
+        CachedPlayer cached = new CachedPlayer(player, nextRefreshAt);
+        if (player instanceof FullPlayer) {
+            this.players.put(player.getUniqueId(), cached);
+        } else {
+            this.players.asMap().putIfAbsent(player.getUniqueId(), cached);
+        }
+        this.usernames.put(player.getUsername().toLowerCase(Locale.ROOT), player.getUniqueId());
+    }
+
+    /**
+     * Drops a player from the cache on every node, once the current transaction (if any) has committed.
+     *
+     * @param id        the player's UUID
+     * @param usernames usernames that may point at a different player now (e.g. the previous and new name)
+     */
+    public void invalidate(UUID id, String... usernames) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateNow(id, usernames);
+                }
+            });
+            return;
+        }
+        invalidateNow(id, usernames);
+    }
+
+    private void invalidateNow(UUID id, String... usernames) {
+        invalidateLocally(id, Arrays.asList(usernames));
+        StringJoiner message = new StringJoiner(",").add(nodeId).add(id.toString());
+        for (String username : usernames) {
+            if (username != null) {
+                message.add(username);
+            }
+        }
+        try {
+            this.redis.convertAndSend(INVALIDATION_CHANNEL, message.toString());
+        } catch (Exception e) {
+            log.warn("Failed to publish player cache invalidation for {}: {}", id, e.toString());
+        }
+    }
+
+    private void onInvalidation(String message) {
+        String[] parts = message.split(",");
+        if (parts.length < 2 || parts[0].equals(nodeId)) {
+            return;
+        }
+        UUID id = UUIDUtils.parseUuid(parts[1]);
+        if (id != null) {
+            invalidateLocally(id, Arrays.asList(parts).subList(2, parts.length));
+        }
+    }
+
+    private void invalidateLocally(UUID id, Collection<String> usernames) {
+        this.invalidatedAt.put(id, System.nanoTime());
+        CachedPlayer removed = this.players.asMap().remove(id);
+        if (removed != null) {
+            this.usernames.invalidate(removed.player().getUsername().toLowerCase(Locale.ROOT));
+        }
+        for (String username : usernames) {
+            if (username != null) {
+                this.usernames.invalidate(username.toLowerCase(Locale.ROOT));
+            }
+        }
+    }
+
+    /**
+     * @param player        the assembled player view, either basic or full
+     * @param nextRefreshAt when the player is due to be refreshed, readers past it trigger a background refresh
+     */
+    public record CachedPlayer(BasicPlayer player, Instant nextRefreshAt) {
+        int weight() {
+            int weight = 1;
+            if (!(player instanceof FullPlayer full)) {
+                return weight;
+            }
+            if (full.getSkinHistory() != null) {
+                weight += full.getSkinHistory().size();
+            }
+            if (full.getCapeHistory() != null) {
+                weight += full.getCapeHistory().size();
+            }
+            if (full.getUsernameHistory() != null) {
+                weight += full.getUsernameHistory().size();
+            }
+            return weight;
+        }
+    }
+}
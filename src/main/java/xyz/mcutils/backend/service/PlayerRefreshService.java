@@ -1,6 +1,5 @@
 package xyz.mcutils.backend.service;
 
-import com.google.common.util.concurrent.RateLimiter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.ContextClosedEvent;
@@ -16,32 +15,27 @@ import xyz.mcutils.backend.repository.postgres.PlayerRepository;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-@SuppressWarnings("UnstableApiUsage")
 @Service
 @Slf4j
 public class PlayerRefreshService {
     private static final int REFRESH_CHUNK_SIZE = 500;
-    /** Must stay at or below http-client.max-connections-per-route to avoid pool queue stalls. */
-    private static final int CONCURRENT_FETCHES = 80;
-    private static final int RATE_LIMIT = 200;
 
-    private final RateLimiter rateLimiter = RateLimiter.create(RATE_LIMIT);
     private final MojangService mojangService;
     private final PlayerService playerService;
     private final PlayerRepository playerRepository;
+    private final ClusterService clusterService;
     private final AtomicBoolean running = new AtomicBoolean(true);
 
-    public PlayerRefreshService(MojangService mojangService, PlayerService playerService, PlayerRepository playerRepository) {
+    public PlayerRefreshService(MojangService mojangService, PlayerService playerService, PlayerRepository playerRepository,
+                                ClusterService clusterService) {
         this.mojangService = mojangService;
         this.playerService = playerService;
         this.playerRepository = playerRepository;
+        this.clusterService = clusterService;
     }
 
     @EventListener(ContextClosedEvent.class)
@@ -58,10 +52,14 @@ public class PlayerRefreshService {
                     MetricService.getMetric(PlayerRefreshMetric.class).recordOverdueCount(
                             this.playerRepository.countByNextRefreshAtBefore(now)
                     );
-                    List<PlayerRow> playerRows = this.playerRepository.findDueForRefresh(
-                            now,
-                            Pageable.ofSize(REFRESH_CHUNK_SIZE)
-                    );
+                    Integer[] shards = Arrays.stream(this.clusterService.getOwnedShards()).boxed().toArray(Integer[]::new);
+                    if (shards.length == 0) {
+                        Thread.sleep(Duration.ofSeconds(10));
+                        continue;
+                    }
+                    List<PlayerRow> playerRows = shards.length == this.clusterService.getShardCount()
+                            ? this.playerRepository.findDueForRefresh(now, Pageable.ofSize(REFRESH_CHUNK_SIZE))
+                            : this.playerRepository.findDueForRefreshInShards(now, this.clusterService.getShardCount(), shards, REFRESH_CHUNK_SIZE);
                     if (playerRows.isEmpty()) {
                         Thread.sleep(Duration.ofSeconds(10));
                         continue;
@@ -84,32 +82,28 @@ public class PlayerRefreshService {
     }
 
     private void refreshChunk(List<PlayerRow> playerRows) {
-        for (int offset = 0; offset < playerRows.size(); offset += CONCURRENT_FETCHES) {
-            if (!running.get()) {
-                return;
-            }
-            int end = Math.min(offset + CONCURRENT_FETCHES, playerRows.size());
-            List<PlayerRow> slice = playerRows.subList(offset, end);
-            // Any lookup failure (null profile, 429, connection timeout, etc.) must still
-            // bump nextRefreshAt. Without this, failed players stay permanently at the front of
-            // the queue and create a retry storm that saturates the connection pool.
-            List<UUID> failedIds = Collections.synchronizedList(new ArrayList<>());
-            List<Future<PlayerService.PlayerUpdate>> futures = new ArrayList<>();
-            for (PlayerRow playerRow : slice) {
-                rateLimiter.acquire();
-                futures.add(Main.EXECUTOR.submit(() -> fetchProfile(playerRow, failedIds)));
-            }
-            List<PlayerService.PlayerUpdate> playerUpdates = FutureUtils.awaitAll(futures, "player refresh");
-            if (!failedIds.isEmpty()) {
-                this.playerService.bumpRefreshFailures(failedIds);
-            }
-            if (!playerUpdates.isEmpty()) {
-                try {
-                    this.playerService.updatePlayers(playerUpdates);
-                    MetricService.getMetric(PlayerRefreshMetric.class).recordPersist(playerUpdates.size());
-                } catch (Exception e) {
-                    log.error("Failed to persist {} player refresh updates", playerUpdates.size(), e);
-                }
+        if (!running.get()) {
+            return;
+        }
+        // Any lookup failure (null profile, 429, connection timeout, etc.) must still
+        // bump nextRefreshAt. Without this, failed players stay permanently at the front of
+        // the queue and create a retry storm that saturates the connection pool.
+        List<UUID> failedIds = Collections.synchronizedList(new ArrayList<>());
+        // Every row is submitted at once, MojangService's concurrency limiter decides how many actually run
+        List<Future<PlayerService.PlayerUpdate>> futures = new ArrayList<>();
+        for (PlayerRow playerRow : playerRows) {
+            futures.add(Main.EXECUTOR.submit(() -> fetchProfile(playerRow, failedIds)));
+        }
+        List<PlayerService.PlayerUpdate> playerUpdates = FutureUtils.awaitAll(futures, "player refresh");
+        if (!failedIds.isEmpty()) {
+            this.playerService.bumpRefreshFailures(failedIds);
+        }
+        if (!playerUpdates.isEmpty()) {
+            try {
+                this.playerService.updatePlayers(playerUpdates);
+                MetricService.getMetric(PlayerRefreshMetric.class).recordPersist(playerUpdates.size());
+            } catch (Exception e) {
+                log.error("Failed to persist {} player refresh updates", playerUpdates.size(), e);
             }
         }
     }
@@ -120,7 +114,7 @@ public class PlayerRefreshService {
         }
         MetricService.getMetric(PlayerRefreshMetric.class).recordMojangLookup();
         try {
-            MojangProfileToken token = this.mojangService.getProfile(playerRow.getId().toString());
+            MojangProfileToken token = this.mojangService.getProfile(playerRow.getId().toString(), MojangRateLimitService.Priority.REFRESH);
             if (token == null) {
                 failedIds.add(playerRow.getId());
                 return null;
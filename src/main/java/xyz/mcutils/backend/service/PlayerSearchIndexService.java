@@ -0,0 +1,268 @@
+package xyz.mcutils.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import xyz.mcutils.backend.Main;
+import xyz.mcutils.backend.common.FuzzySearch;
+import xyz.mcutils.backend.common.UUIDUtils;
+import xyz.mcutils.backend.common.search.UsernamePrefixIndex;
+import xyz.mcutils.backend.model.persistence.postgres.PlayerNameRow;
+import xyz.mcutils.backend.repository.postgres.PlayerRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory username search over every tracked player.
+ * <p>
+ * The bulk of the names live in an immutable {@link UsernamePrefixIndex} rebuilt from the database every hour
+ * (which also picks up new monthly view counts). Players created or renamed since the last build are kept in a
+ * small overlay, and hide their entry in the base index until the next build includes them. Every node hears of
+ * the changes made on the others over Redis pub/sub, and an overlay that grows past
+ * {@link #MAX_OVERLAY_SIZE} triggers an early rebuild.
+ */
+@Service
+@Slf4j
+public class PlayerSearchIndexService {
+    private static final int BUILD_PAGE_SIZE = 50_000;
+    private static final UUID MIN_UUID = new UUID(0, 0);
+    private static final String NAMED_CHANNEL = "player-search-named";
+    private static final int MAX_OVERLAY_SIZE = 50_000;
+
+    private final PlayerRepository playerRepository;
+    private final RedisTemplate<String, String> redis;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicBoolean building = new AtomicBoolean();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private volatile UsernamePrefixIndex index = UsernamePrefixIndex.EMPTY;
+
+    /**
+     * Whether the index has been built at least once, until then searches fall back to the database.
+     */
+    @Getter
+    private volatile boolean ready;
+
+    /** Overlay entries keyed by {@code lowercaseName + '\0' + id}, so a prefix is one contiguous sub map. */
+    private final ConcurrentSkipListMap<String, OverlayEntry> overlay = new ConcurrentSkipListMap<>();
+    private final Map<UUID, OverlayEntry> overlayById = new ConcurrentHashMap<>();
+    /** The overlay as an index for fuzzy searches, built on the first search after it changed. */
+    private volatile UsernamePrefixIndex overlayIndex = UsernamePrefixIndex.EMPTY;
+    /** Players whose base index entry is outdated, mapped to the sequence of the change. */
+    private final Map<UUID, Long> hiddenFromBase = new ConcurrentHashMap<>();
+
+    public PlayerSearchIndexService(PlayerRepository playerRepository, @Qualifier("queueRedisTemplate") RedisTemplate<String, String> redis,
+                                    RedisMessageListenerContainer listenerContainer) {
+        this.playerRepository = playerRepository;
+        this.redis = redis;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @PostConstruct
+    public void init() {
+        this.listenerContainer.addMessageListener((message, pattern) ->
+                onRemoteNamed(new String(message.getBody(), StandardCharsets.UTF_8)), new ChannelTopic(NAMED_CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        Main.EXECUTOR.submit(this::rebuild);
+    }
+
+    /**
+     * Rebuilds the base index from the database.
+     */
+    @Scheduled(cron = "0 30 * * * *") // Every hour, offset from the monthly views update
+    public void rebuild() {
+        if (!building.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            long buildSequence = sequence.get();
+            UsernamePrefixIndex.Builder builder = new UsernamePrefixIndex.Builder();
+            UUID after = MIN_UUID;
+            List<PlayerNameRow> page;
+            do {
+                page = playerRepository.findNamesAfter(after, Pageable.ofSize(BUILD_PAGE_SIZE));
+                for (PlayerNameRow row : page) {
+                    builder.add(row.id(), row.username(), row.monthlyViews());
+                }
+                if (!page.isEmpty()) {
+                    after = page.getLast().id();
+                }
+            } while (page.size() == BUILD_PAGE_SIZE);
+            UsernamePrefixIndex built = builder.build();
+
+            synchronized (this) {
+                this.index = built;
+                // Changes from before the scan started are in the new base now
+                overlayById.values().removeIf(entry -> {
+                    if (entry.sequence() > buildSequence) {
+                        return false;
+                    }
+                    overlay.remove(entry.key(), entry);
+                    return true;
+                });
+                overlayIndex = null;
+                hiddenFromBase.values().removeIf(changeSequence -> changeSequence <= buildSequence);
+            }
+            this.ready = true;
+            log.info("Built player search index with {} names in {}ms", built.size(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.error("Failed to build the player search index", e);
+        } finally {
+            building.set(false);
+        }
+    }
+
+    /**
+     * Records a player's current name on every node, after it was created or renamed,
+     * once the current transaction (if any) has committed.
+     *
+     * @param id           the player's UUID
+     * @param username     the player's new username
+     * @param monthlyViews the player's monthly views
+     */
+    public void onPlayerNamed(UUID id, String username, long monthlyViews) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    onNamed(id, username, monthlyViews);
+                }
+            });
+            return;
+        }
+        onNamed(id, username, monthlyViews);
+    }
+
+    private void onNamed(UUID id, String username, long monthlyViews) {
+        addToOverlay(id, username, monthlyViews);
+        try {
+            this.redis.convertAndSend(NAMED_CHANNEL, String.join(",", nodeId, id.toString(), String.valueOf(monthlyViews), username));
+        } catch (Exception e) {
+            log.warn("Failed to publish player search update for {}: {}", id, e.toString());
+        }
+    }
+
+    private void onRemoteNamed(String message) {
+        String[] parts = message.split(",", 4);
+        if (parts.length < 4 || parts[0].equals(nodeId)) {
+            return;
+        }
+        try {
+            addToOverlay(UUIDUtils.parseUuid(parts[1]), parts[3], Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            log.debug("Ignoring malformed player search update: {}", message);
+        }
+    }
+
+    private void addToOverlay(UUID id, String username, long monthlyViews) {
+        putInOverlay(id, username, monthlyViews);
+        if (overlayById.size() > MAX_OVERLAY_SIZE && ready && !building.get()) {
+            // Fold the overlay into the base early rather than letting it grow until the hourly rebuild
+            Main.EXECUTOR.submit(this::rebuild);
+        }
+    }
+
+    private synchronized void putInOverlay(UUID id, String username, long monthlyViews) {
+        long changeSequence = sequence.incrementAndGet();
+        String name = username.toLowerCase(Locale.ROOT);
+        OverlayEntry entry = new OverlayEntry(name + '\0' + id, id, name, monthlyViews, changeSequence);
+        OverlayEntry previous = overlayById.put(id, entry);
+        if (previous != null) {
+            overlay.remove(previous.key(), previous);
+        }
+        overlay.put(entry.key(), entry);
+        hiddenFromBase.put(id, changeSequence);
+        overlayIndex = null;
+    }
+
+    /**
+     * Gets the overlay as an index, so fuzzy searches walk it like the base index instead of comparing every entry.
+     */
+    private UsernamePrefixIndex getOverlayIndex() {
+        UsernamePrefixIndex built = overlayIndex;
+        if (built != null) {
+            return built;
+        }
+        synchronized (this) {
+            if (overlayIndex == null) {
+                UsernamePrefixIndex.Builder builder = new UsernamePrefixIndex.Builder();
+                for (OverlayEntry entry : overlayById.values()) {
+                    builder.add(entry.id(), entry.username(), entry.monthlyViews());
+                }
+                overlayIndex = builder.build();
+            }
+            return overlayIndex;
+        }
+    }
+
+    /**
+     * Finds the most viewed players whose username starts with the given prefix.
+     *
+     * @param prefix the username prefix, case-insensitive
+     * @param limit  the maximum number of players
+     * @return the matching player ids, most viewed first
+     */
+    public List<UUID> searchPrefix(String prefix, int limit) {
+        String key = prefix.toLowerCase(Locale.ROOT);
+        List<UsernamePrefixIndex.Match> matches = new ArrayList<>(index.search(key, limit, hiddenFromBase::containsKey));
+        for (OverlayEntry entry : overlay.subMap(key, key + Character.MAX_VALUE).values()) {
+            matches.add(new UsernamePrefixIndex.Match(entry.id(), entry.username(), entry.monthlyViews()));
+        }
+        return matches.stream()
+                .sorted(Comparator.comparingLong(UsernamePrefixIndex.Match::score).reversed())
+                .limit(limit)
+                .map(UsernamePrefixIndex.Match::id)
+                .toList();
+    }
+
+    /**
+     * Finds the players whose username is within a few typos of the query, closest first and then most viewed.
+     * The allowed distance grows with the query length, as very short queries would match nearly everything.
+     *
+     * @param query the username, case-insensitive
+     * @param limit the maximum number of players
+     * @return the matching player ids, best first
+     */
+    public List<UUID> searchFuzzy(String query, int limit) {
+        String key = query.toLowerCase(Locale.ROOT);
+        int maxDistance = maxFuzzyDistance(key.length());
+        List<UsernamePrefixIndex.FuzzyMatch> matches = new ArrayList<>(index.searchFuzzy(key, maxDistance, limit, hiddenFromBase::containsKey));
+        matches.addAll(getOverlayIndex().searchFuzzy(key, maxDistance, limit, id -> false));
+        return matches.stream()
+                .sorted(Comparator.comparingInt(UsernamePrefixIndex.FuzzyMatch::distance)
+                        .thenComparing(Comparator.comparingLong(UsernamePrefixIndex.FuzzyMatch::score).reversed()))
+                .limit(limit)
+                .map(UsernamePrefixIndex.FuzzyMatch::id)
+                .toList();
+    }
+
+    private static int maxFuzzyDistance(int queryLength) {
+        if (queryLength < 3) {
+            return 0;
+        }
+        return queryLength < 6 ? 1 : FuzzySearch.DEFAULT_MAX_FUZZY_DISTANCE;
+    }
+
+    private record OverlayEntry(String key, UUID id, String username, long monthlyViews, long sequence) {}
+}
@@ -1,10 +1,16 @@
 package xyz.mcutils.backend.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,6 +23,7 @@ import xyz.mcutils.backend.metric.impl.player.AccountsUpdatedMetric;
 import xyz.mcutils.backend.metric.impl.player.PlayerChangesDetectedMetric;
 import xyz.mcutils.backend.metric.impl.player.PlayerRefreshMetric;
 import xyz.mcutils.backend.model.domain.cape.impl.VanillaCape;
+import xyz.mcutils.backend.model.domain.player.BasicPlayer;
 import xyz.mcutils.backend.model.domain.player.FullPlayer;
 import xyz.mcutils.backend.model.domain.player.history.RecentUsernameChange;
 import xyz.mcutils.backend.model.domain.player.history.UsernameHistory;
@@ -36,15 +43,24 @@ import xyz.mcutils.backend.websocket.impl.NameChangeWebSocket;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Service
 @Slf4j
 public class PlayerService {
     static final Duration PLAYER_UPDATE_INTERVAL = PlayerRefreshSchedule.BASE_INTERVAL;
     private static final int MAX_PLAYER_SEARCH_RESULTS = 5;
+    /** How long a background refresh may hold its in-flight marker before another reader may retry it. */
+    private static final Duration REFRESH_IN_FLIGHT_TTL = Duration.ofSeconds(30);
+    private static final String REFRESH_IN_FLIGHT_KEY_PREFIX = "player-refresh-inflight:";
+
+    /** Clears the in-flight marker only if it is still ours, a refresh that outlived its TTL may have lost it. */
+    private static final RedisScript<Long> RELEASE_REFRESH_MARKER_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
 
     public static PlayerService INSTANCE;
     private final MojangService mojangService;
@@ -55,13 +71,23 @@ public class PlayerService {
     private final PlayerSkinAdoptionRepository playerSkinAdoptionRepository;
     private final PlayerCapeAdoptionRepository playerCapeAdoptionRepository;
     private final PlayerService self;
+    private final RedisTemplate<String, String> redis;
+    private final PlayerCacheService playerCacheService;
+    private final PlayerSearchIndexService playerSearchIndexService;
 
     private final CoalescingLoader<String, PlayerRow> playerLoader = new CoalescingLoader<>(Runnable::run);
+    /**
+     * Players with a background refresh running on this node, checked before the cluster-wide marker in Redis.
+     */
+    private final Cache<UUID, Boolean> refreshesInFlight = Caffeine.newBuilder()
+            .expireAfterWrite(REFRESH_IN_FLIGHT_TTL)
+            .build();
 
     public PlayerService(MojangService mojangService, SkinService skinService, CapeService capeService,
                          PlayerRepository playerRepository, UsernameChangeEventRepository usernameChangeEventRepository,
                          PlayerSkinAdoptionRepository playerSkinAdoptionRepository, PlayerCapeAdoptionRepository playerCapeAdoptionRepository,
-                         @Lazy PlayerService self) {
+                         @Lazy PlayerService self, @Qualifier("queueRedisTemplate") RedisTemplate<String, String> redis,
+                         PlayerCacheService playerCacheService, PlayerSearchIndexService playerSearchIndexService) {
         this.mojangService = mojangService;
         this.skinService = skinService;
         this.capeService = capeService;
@@ -70,6 +96,9 @@ public class PlayerService {
         this.playerSkinAdoptionRepository = playerSkinAdoptionRepository;
         this.playerCapeAdoptionRepository = playerCapeAdoptionRepository;
         this.self = self;
+        this.redis = redis;
+        this.playerCacheService = playerCacheService;
+        this.playerSearchIndexService = playerSearchIndexService;
     }
 
     @PostConstruct
@@ -77,6 +106,55 @@ public class PlayerService {
         INSTANCE = this;
     }
 
+    /**
+     * Gets the full view of a player, served from the hot player cache when possible.
+     *
+     * @param query the UUID or username of the player
+     * @return the player
+     */
+    public FullPlayer getFullPlayer(String query) {
+        if (this.getCachedPlayer(query) instanceof FullPlayer cached) {
+            return cached;
+        }
+        long loadStarted = this.playerCacheService.startLoad();
+        PlayerRow playerRow = this.self.getPlayer(query);
+        FullPlayer player = this.self.getFullPlayers(List.of(playerRow)).getFirst();
+        this.playerCacheService.put(player, playerRow.getNextRefreshAt(), loadStarted);
+        return player;
+    }
+
+    /**
+     * Gets the basic view of a player, without touching any of the history tables.
+     *
+     * @param query the UUID or username of the player
+     * @return the player
+     */
+    public BasicPlayer getBasicPlayer(String query) {
+        BasicPlayer cached = this.getCachedPlayer(query);
+        if (cached != null) {
+            return cached instanceof FullPlayer full ? BasicPlayer.from(full) : cached;
+        }
+        long loadStarted = this.playerCacheService.startLoad();
+        PlayerRow playerRow = this.self.getPlayer(query);
+        BasicPlayer player = BasicPlayer.fromRow(playerRow);
+        this.playerCacheService.put(player, playerRow.getNextRefreshAt(), loadStarted);
+        return player;
+    }
+
+    /**
+     * Gets a player from the hot player cache, refreshing it in the background when it is overdue.
+     */
+    private BasicPlayer getCachedPlayer(String query) {
+        PlayerCacheService.CachedPlayer cached = this.playerCacheService.get(query);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.nextRefreshAt().isBefore(Instant.now())) {
+            this.refreshInBackground(cached.player().getUniqueId(), null);
+        }
+        return cached.player();
+    }
+
     @Transactional
     public PlayerRow getPlayer(String query) {
         return playerLoader.get(query, () -> {
@@ -102,23 +180,59 @@ public class PlayerService {
 
             PlayerRow playerRow = optionalPlayerRow.get();
             if (playerRow.getNextRefreshAt().isBefore(Instant.now())) {
-                Main.EXECUTOR.execute(() -> {
-                    try {
-                        MojangProfileToken token = this.mojangService.getProfile(playerRow.getId().toString());
-                        if (token == null) {
-                            this.bumpRefreshFailure(playerRow.getId());
-                            return;
-                        }
-                        this.self.updatePlayer(playerRow, token);
-                    } catch (Exception e) {
-                        this.bumpRefreshFailure(playerRow.getId());
-                    }
-                });
+                this.refreshInBackground(playerRow.getId(), playerRow);
             }
             return playerRow;
         });
     }
 
+    /**
+     * Refreshes an overdue player without making the reader wait (stale-while-revalidate).
+     * At most one refresh per player runs across the cluster; readers arriving while it runs get the stale row.
+     *
+     * @param id        the overdue player's UUID
+     * @param playerRow the overdue player, or null to load it when the refresh starts
+     */
+    public void refreshInBackground(UUID id, PlayerRow playerRow) {
+        if (this.refreshesInFlight.asMap().putIfAbsent(id, Boolean.TRUE) != null) {
+            return;
+        }
+        String key = REFRESH_IN_FLIGHT_KEY_PREFIX + id;
+        String token = UUID.randomUUID().toString();
+        try {
+            if (!Boolean.TRUE.equals(this.redis.opsForValue().setIfAbsent(key, token, REFRESH_IN_FLIGHT_TTL))) {
+                return; // Another node is on it, keep the local marker so we don't ask Redis on every read
+            }
+        } catch (Exception e) {
+            log.debug("Failed to set refresh marker for {}, refreshing locally: {}", id, e.toString());
+        }
+
+        Main.EXECUTOR.execute(() -> {
+            try {
+                PlayerRow snapshot = playerRow != null ? playerRow : this.playerRepository.findById(id).orElse(null);
+                if (snapshot == null) {
+                    return;
+                }
+                MojangProfileToken token = this.mojangService.getProfile(id.toString(), MojangRateLimitService.Priority.REFRESH);
+                if (token == null) {
+                    this.bumpRefreshFailure(id);
+                    return;
+                }
+                this.self.updatePlayer(snapshot, token);
+            } catch (Exception e) {
+                this.bumpRefreshFailure(id);
+            } finally {
+                // Either nextRefreshAt moved forward or the failure backoff did, so the markers are no longer needed
+                this.refreshesInFlight.invalidate(id);
+                try {
+                    this.redis.execute(RELEASE_REFRESH_MARKER_SCRIPT, List.of(key), token);
+                } catch (Exception e) {
+                    log.debug("Failed to clear refresh marker for {}: {}", id, e.toString());
+                }
+            }
+        });
+    }
+
     @Transactional
     public PlayerRow createPlayer(MojangProfileToken token) {
         UUID id = UUIDUtils.parseUuid(token.getId());
@@ -149,6 +263,8 @@ public class PlayerService {
             this.playerCapeAdoptionRepository.save(new PlayerCapeAdoptionRow(id, cape.getId(), now, null));
         }
 
+        this.playerCacheService.invalidate(id, token.getName()); // The name may be cached for its previous owner
+        this.playerSearchIndexService.onPlayerNamed(id, token.getName(), 0);
         StatisticsService.addTrackedPlayerCount(1);
         return playerRow;
     }
@@ -159,38 +275,17 @@ public class PlayerService {
 
     @Transactional
     public void createPlayers(List<MojangProfileToken> tokens) {
-        Map<String, CompletableFuture<SkinRow>> skinFutures = tokens.stream()
-                .map(t -> t.getSkinAndCape().left())
-                .collect(Collectors.toMap(
-                        SkinTextureToken::getTextureId,
-                        t -> CompletableFuture.supplyAsync(() -> {
-                            UUID firstPlayerId = UUIDUtils.parseUuid(tokens.stream()
-                                    .filter(tok -> Objects.equals(tok.getSkinAndCape().left().getTextureId(), t.getTextureId()))
-                                    .findFirst().orElseThrow().getId());
-                            return this.skinService.getOrCreateSkinCached(t, firstPlayerId);
-                        }, Main.EXECUTOR),
-                        (a, b) -> a));
-
-        Map<String, CompletableFuture<CapeRow>> capeFutures = tokens.stream()
-                .map(t -> t.getSkinAndCape().right())
-                .filter(Objects::nonNull)
-                .collect(Collectors.toMap(
-                        CapeTextureToken::getTextureId,
-                        t -> CompletableFuture.supplyAsync(() -> {
-                            UUID firstPlayerId = UUIDUtils.parseUuid(tokens.stream()
-                                    .filter(tok -> tok.getSkinAndCape().right() != null && tok.getSkinAndCape().right().getTextureId().equals(t.getTextureId()))
-                                    .findFirst().orElseThrow().getId());
-                            return this.capeService.getOrCreateCapeCached(t, firstPlayerId);
-                        }, Main.EXECUTOR),
-                        (a, b) -> a));
-
-        CompletableFuture.allOf(Stream.concat(skinFutures.values().stream(), capeFutures.values().stream())
-                .toArray(CompletableFuture[]::new)).join();
-
-        Map<String, SkinRow> skinsByTextureId = skinFutures.entrySet().stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().join()));
-        Map<String, CapeRow> capesByTextureId = capeFutures.entrySet().stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().join()));
+        List<Tuple<SkinTextureToken, UUID>> skinTokens = new ArrayList<>();
+        List<Tuple<CapeTextureToken, UUID>> capeTokens = new ArrayList<>();
+        for (MojangProfileToken token : tokens) {
+            UUID id = UUIDUtils.parseUuid(token.getId());
+            skinTokens.add(new Tuple<>(token.getSkinAndCape().left(), id));
+            if (token.getSkinAndCape().right() != null) {
+                capeTokens.add(new Tuple<>(token.getSkinAndCape().right(), id));
+            }
+        }
+        Map<String, SkinRow> skinsByTextureId = this.skinService.getOrCreateSkins(skinTokens);
+        Map<String, CapeRow> capesByTextureId = capeTokens.isEmpty() ? Map.of() : this.capeService.getOrCreateCapes(capeTokens);
 
         List<UUID> ids = tokens.stream().map(t -> UUIDUtils.parseUuid(t.getId())).toList();
         Set<UUID> existingIds = this.playerRepository.findExistingIds(ids);
@@ -222,6 +317,10 @@ public class PlayerService {
         }
 
         this.playerRepository.saveAll(playerRows);
+        for (PlayerRow playerRow : playerRows) {
+            this.playerCacheService.invalidate(playerRow.getId(), playerRow.getUsername());
+            this.playerSearchIndexService.onPlayerNamed(playerRow.getId(), playerRow.getUsername(), 0);
+        }
         this.playerSkinAdoptionRepository.saveAll(skinAdoptions);
         if (!capeAdoptions.isEmpty()) {
             this.playerCapeAdoptionRepository.saveAll(capeAdoptions);
@@ -234,10 +333,38 @@ public class PlayerService {
                 .sorted(Comparator.comparing(u -> u.playerRow().getId()))
                 .toList();
 
+        // Resolve every changed skin/cape for the batch up front, one upsert each instead of one per texture
+        List<Tuple<SkinTextureToken, UUID>> changedSkins = new ArrayList<>();
+        List<Tuple<CapeTextureToken, UUID>> changedCapes = new ArrayList<>();
+        for (PlayerUpdate playerUpdate : sortedUpdates) {
+            PlayerRow snapshot = playerUpdate.playerRow();
+            Tuple<SkinTextureToken, CapeTextureToken> skinAndCape = playerUpdate.token().getSkinAndCape();
+            if (!snapshot.getSkin().getTextureId().equals(skinAndCape.left().getTextureId())) {
+                changedSkins.add(new Tuple<>(skinAndCape.left(), snapshot.getId()));
+            }
+            String oldCapeTextureId = snapshot.getCape() != null ? snapshot.getCape().getTextureId() : null;
+            if (skinAndCape.right() != null && !skinAndCape.right().getTextureId().equals(oldCapeTextureId)) {
+                changedCapes.add(new Tuple<>(skinAndCape.right(), snapshot.getId()));
+            }
+        }
+        Map<String, SkinRow> skinsByTextureId = Map.of();
+        Map<String, CapeRow> capesByTextureId = Map.of();
+        try {
+            if (!changedSkins.isEmpty()) {
+                skinsByTextureId = this.skinService.getOrCreateSkins(changedSkins);
+            }
+            if (!changedCapes.isEmpty()) {
+                capesByTextureId = this.capeService.getOrCreateCapes(changedCapes);
+            }
+        } catch (Exception e) {
+            // Fall back to resolving per player below
+            log.warn("Failed to bulk resolve {} skins and {} capes: {}", changedSkins.size(), changedCapes.size(), e.toString());
+        }
+
         List<UsernameChangeEventRow> usernameChangeEvents = new ArrayList<>();
         for (PlayerUpdate playerUpdate : sortedUpdates) {
             try {
-                PreparedPlayerUpdate prepared = preparePlayerUpdate(playerUpdate);
+                PreparedPlayerUpdate prepared = preparePlayerUpdate(playerUpdate, skinsByTextureId, capesByTextureId);
                 UsernameChangeEventRow usernameChangeEvent = this.self.persistPlayerUpdate(prepared);
                 if (usernameChangeEvent != null) {
                     usernameChangeEvents.add(usernameChangeEvent);
@@ -260,9 +387,10 @@ public class PlayerService {
     }
 
     /**
-     * Resolves skin/cape rows without holding a player row lock.
+     * Resolves skin/cape rows without holding a player row lock, preferring the rows already resolved for the batch.
      */
-    private PreparedPlayerUpdate preparePlayerUpdate(PlayerUpdate playerUpdate) {
+    private PreparedPlayerUpdate preparePlayerUpdate(PlayerUpdate playerUpdate, Map<String, SkinRow> skinsByTextureId,
+                                                     Map<String, CapeRow> capesByTextureId) {
         PlayerRow snapshot = playerUpdate.playerRow();
         MojangProfileToken token = playerUpdate.token();
         Tuple<SkinTextureToken, CapeTextureToken> skinAndCape = token.getSkinAndCape();
@@ -271,7 +399,10 @@ public class PlayerService {
 
         SkinRow newSkin = null;
         if (!snapshot.getSkin().getTextureId().equals(skinToken.getTextureId())) {
-            newSkin = this.skinService.getOrCreateSkinCached(skinToken, snapshot.getId());
+            newSkin = skinsByTextureId.get(skinToken.getTextureId());
+            if (newSkin == null) {
+                newSkin = this.skinService.getOrCreateSkinCached(skinToken, snapshot.getId());
+            }
         }
 
         String oldCapeTextureId = snapshot.getCape() != null ? snapshot.getCape().getTextureId() : null;
@@ -279,7 +410,10 @@ public class PlayerService {
         boolean capeChanged = !Objects.equals(oldCapeTextureId, newCapeTextureId);
         CapeRow newCape = null;
         if (capeChanged && capeToken != null) {
-            newCape = this.capeService.getOrCreateCapeCached(capeToken, snapshot.getId());
+            newCape = capesByTextureId.get(capeToken.getTextureId());
+            if (newCape == null) {
+                newCape = this.capeService.getOrCreateCapeCached(capeToken, snapshot.getId());
+            }
         }
 
         return new PreparedPlayerUpdate(snapshot.getId(), token, newSkin, newCape, capeChanged);
@@ -346,9 +480,11 @@ public class PlayerService {
         }
         if (usernameChangeEventRow != null) {
             this.usernameChangeEventRepository.save(usernameChangeEventRow);
+            this.playerSearchIndexService.onPlayerNamed(playerRow.getId(), token.getName(), playerRow.getMonthlyViews());
             StatisticsService.addNameChangesCount(1);
         }
 
+        this.playerCacheService.invalidate(playerRow.getId(), previousUsername, token.getName());
         MetricService.getMetric(AccountsUpdatedMetric.class).inc(1);
         if (changeCount > 0) {
             MetricService.getMetric(PlayerChangesDetectedMetric.class).inc(changeCount);
@@ -364,13 +500,55 @@ public class PlayerService {
             boolean capeChanged
     ) {}
 
-    public Set<UsernameHistory> getUsernameHistory(PlayerRow player) {
-        List<UsernameChangeEventRow> events = this.usernameChangeEventRepository
-                .findByPlayerIdOrderByTimestampDesc(player.getId())
-                .stream()
+    public List<RecentUsernameChange> getRecentNameChanges() {
+        return this.usernameChangeEventRepository.findRecentNameChanges(PageRequest.of(0, 50)).stream()
+                .map(row -> new RecentUsernameChange(row.getPlayerId(), row.getNewUsername(), row.getPreviousUsername(), row.getTimestamp()))
+                .toList();
+    }
+
+    /**
+     * Assembles the full view of the given players, loading the skin, cape
+     * and username history of all of them in one query each.
+     *
+     * @param playerRows the players
+     * @return the full players, in the same order
+     */
+    @Transactional(readOnly = true)
+    public List<FullPlayer> getFullPlayers(List<PlayerRow> playerRows) {
+        if (playerRows.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> ids = playerRows.stream().map(PlayerRow::getId).toList();
+        Map<UUID, Set<Skin>> skinHistories = new HashMap<>();
+        for (PlayerSkinAdoptionRow adoption : this.playerSkinAdoptionRepository.findByPlayerIdsWithSkin(ids)) {
+            Skin skin = Skin.fromRow(adoption.getSkin());
+            skin.setFirstSeen(adoption.getFirstSeen());
+            skinHistories.computeIfAbsent(adoption.getPlayerId(), _ -> new LinkedHashSet<>()).add(skin);
+        }
+        Map<UUID, Set<VanillaCape>> capeHistories = new HashMap<>();
+        for (PlayerCapeAdoptionRow adoption : this.playerCapeAdoptionRepository.findByPlayerIdsWithCape(ids)) {
+            VanillaCape cape = VanillaCape.fromRow(adoption.getCape());
+            cape.setFirstSeen(adoption.getFirstSeen());
+            capeHistories.computeIfAbsent(adoption.getPlayerId(), _ -> new LinkedHashSet<>()).add(cape);
+        }
+        Map<UUID, List<UsernameChangeEventRow>> usernameChanges = this.usernameChangeEventRepository.findByPlayerIdInOrderByTimestampDesc(ids).stream()
                 .filter(row -> row.getPreviousUsername() != null)
+                .collect(Collectors.groupingBy(UsernameChangeEventRow::getPlayerId));
+
+        return playerRows.stream()
+                .map(playerRow -> FullPlayer.fromRow(
+                        playerRow,
+                        skinHistories.getOrDefault(playerRow.getId(), new LinkedHashSet<>()),
+                        capeHistories.getOrDefault(playerRow.getId(), new LinkedHashSet<>()),
+                        toUsernameHistory(playerRow, usernameChanges.getOrDefault(playerRow.getId(), List.of()))
+                ))
                 .toList();
+    }
 
+    /**
+     * Builds the username history of a player from its name changes, newest first.
+     */
+    private static Set<UsernameHistory> toUsernameHistory(PlayerRow player, List<UsernameChangeEventRow> events) {
         Set<UsernameHistory> history = events.stream()
                 .map(row -> new UsernameHistory(row.getNewUsername(), row.getPreviousUsername(), row.getTimestamp()))
                 .collect(Collectors.toCollection(LinkedHashSet::new));
@@ -383,41 +561,33 @@ public class PlayerService {
         return history;
     }
 
-    public List<RecentUsernameChange> getRecentNameChanges() {
-        return this.usernameChangeEventRepository.findRecentNameChanges(PageRequest.of(0, 50)).stream()
-                .map(row -> new RecentUsernameChange(row.getPlayerId(), row.getNewUsername(), row.getPreviousUsername(), row.getTimestamp()))
-                .toList();
-    }
-
-    @Transactional(readOnly = true)
-    public Set<Skin> getSkinHistory(PlayerRow player) {
-        List<PlayerSkinAdoptionRow> adoptions = this.playerSkinAdoptionRepository.findByPlayerIdOrderByFirstSeenAsc(player.getId());
-        return adoptions.stream()
-                .filter(adoption -> adoption.getSkin() != null)
-                .map(adoption -> {
-                    Skin skin = Skin.fromRow(adoption.getSkin());
-                    skin.setFirstSeen(adoption.getFirstSeen());
-                    return skin;
-                })
-                .collect(Collectors.toCollection(LinkedHashSet::new));
+    public List<FullPlayer> searchPlayers(String query) {
+        if (!this.playerSearchIndexService.isReady()) {
+            return this.self.getFullPlayers(this.playerRepository.findByUsernameStartingWithIgnoreCase(query, Pageable.ofSize(MAX_PLAYER_SEARCH_RESULTS)));
+        }
+        return getFullPlayersInOrder(this.playerSearchIndexService.searchPrefix(query, MAX_PLAYER_SEARCH_RESULTS));
     }
 
-    @Transactional(readOnly = true)
-    public Set<VanillaCape> getCapeHistory(PlayerRow player) {
-        List<PlayerCapeAdoptionRow> adoptions = this.playerCapeAdoptionRepository.findByPlayerIdOrderByFirstSeenAsc(player.getId());
-        return adoptions.stream()
-                .filter(adoption -> adoption.getCape() != null)
-                .map(adoption -> {
-                    VanillaCape cape = VanillaCape.fromRow(adoption.getCape());
-                    cape.setFirstSeen(adoption.getFirstSeen());
-                    return cape;
-                })
-                .collect(Collectors.toCollection(LinkedHashSet::new));
+    /**
+     * Searches players by username, tolerating typos (up to two edits for longer queries).
+     *
+     * @param query the username to search for
+     * @return the closest players, most viewed first among equally close ones
+     */
+    public List<FullPlayer> fuzzySearchPlayers(String query) {
+        if (!this.playerSearchIndexService.isReady()) {
+            return this.searchPlayers(query);
+        }
+        return getFullPlayersInOrder(this.playerSearchIndexService.searchFuzzy(query, MAX_PLAYER_SEARCH_RESULTS));
     }
 
-    public List<FullPlayer> searchPlayers(String query) {
-        return this.playerRepository.findByUsernameStartingWithIgnoreCase(query, Pageable.ofSize(MAX_PLAYER_SEARCH_RESULTS)).stream()
-                .map(playerRow -> FullPlayer.fromRow(playerRow, this)).toList();
+    private List<FullPlayer> getFullPlayersInOrder(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, PlayerRow> rowsById = this.playerRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(PlayerRow::getId, row -> row));
+        return this.self.getFullPlayers(ids.stream().map(rowsById::get).filter(Objects::nonNull).toList());
     }
 
     public List<PlayerRow> getTopSubmittedPlayers(int amount) {
@@ -439,6 +609,7 @@ public class PlayerService {
                 now,
                 now.plus(PlayerRefreshSchedule.FAILURE_BACKOFF)
         );
+        this.playerCacheService.invalidate(playerId); // Pick up the backed off nextRefreshAt
     }
 
     public void bumpRefreshFailures(Collection<UUID> playerIds) {
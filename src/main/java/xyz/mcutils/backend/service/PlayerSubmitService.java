@@ -1,6 +1,5 @@
 package xyz.mcutils.backend.service;
 
-import com.google.common.util.concurrent.RateLimiter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Lazy;
@@ -29,19 +28,14 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * Dedicated submit queue for tracking new players.
  * Queue entries are stored as strings: {@code playerUuid,submitterUuid} (or {@code playerUuid} when no submitter).
  */
-@SuppressWarnings("UnstableApiUsage")
 @Service
 @Slf4j
 public class PlayerSubmitService {
 
     private static final int BATCH_SIZE = 1000;
-    /** Must stay at or below http-client.max-connections-per-route to avoid pool queue stalls. */
-    private static final int CONCURRENT_FETCHES = 80;
-    private static final int RATE_LIMIT = 400;
     private static final String QUEUE_NAME = "player-submit-queue";
     private static final Duration EMPTY_QUEUE_BLOCK = Duration.ofSeconds(2);
 
-    private final RateLimiter rateLimiter = RateLimiter.create(RATE_LIMIT);
     private final RedisQueue submitQueue;
     private final PlayerService playerService;
     private final MojangService mojangService;
@@ -118,22 +112,17 @@ public class PlayerSubmitService {
         List<FetchResult> successResults = new ArrayList<>();
         List<String> toRequeue = new ArrayList<>();
 
-        for (int offset = 0; offset < toProcess.size(); offset += CONCURRENT_FETCHES) {
-            if (!running.get()) {
-                break;
-            }
-            int end = Math.min(offset + CONCURRENT_FETCHES, toProcess.size());
-            List<QueueEntry> slice = toProcess.subList(offset, end);
-            List<Future<Void>> futures = new ArrayList<>();
-            for (QueueEntry entry : slice) {
-                rateLimiter.acquire();
-                futures.add(Main.EXECUTOR.submit(() -> {
+        // Every entry is submitted at once, MojangService's concurrency limiter decides how many actually run
+        List<Future<Void>> futures = new ArrayList<>();
+        for (QueueEntry entry : toProcess) {
+            futures.add(Main.EXECUTOR.submit(() -> {
+                if (running.get()) {
                     fetchResults.add(fetchProfile(entry));
-                    return null;
-                }));
-            }
-            FutureUtils.awaitAll(futures, "submit");
+                }
+                return null;
+            }));
         }
+        FutureUtils.awaitAll(futures, "submit");
 
         for (FetchResult result : fetchResults) {
             if (result.outcome() == PlayerSubmitProcessingMetric.Outcome.RATE_LIMITED
@@ -168,7 +157,7 @@ public class PlayerSubmitService {
     private FetchResult fetchProfile(QueueEntry entry) {
         long processStart = System.currentTimeMillis();
         try {
-            MojangProfileToken token = mojangService.getProfile(entry.playerId().toString());
+            MojangProfileToken token = mojangService.getProfile(entry.playerId().toString(), MojangRateLimitService.Priority.SUBMIT);
             if (token == null) {
                 log.warn("Player with uuid '{}' was not found", entry.playerId());
                 recordOutcome(PlayerSubmitProcessingMetric.Outcome.NOT_FOUND, processStart);
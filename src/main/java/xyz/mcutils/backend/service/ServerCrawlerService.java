@@ -0,0 +1,279 @@
+package xyz.mcutils.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import xyz.mcutils.backend.Main;
+import xyz.mcutils.backend.common.EnumUtils;
+import xyz.mcutils.backend.common.FutureUtils;
+import xyz.mcutils.backend.metric.impl.server.ServerCrawlerMetric;
+import xyz.mcutils.backend.model.domain.server.Platform;
+import xyz.mcutils.backend.model.domain.serverregistry.ServerRegistryEntry;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps popular servers in the server cache so their lookups never wait on a ping.
+ * <p>
+ * Every crawl pings each server of the registry plus the most requested servers, at most
+ * {@code mc-utils.server-crawler.concurrency} at a time, and caches the results like a lookup would. The crawl
+ * repeats within the cache TTL. Servers that fail are retried after an exponential backoff. With several
+ * replicas, each one crawls the servers that hash into its {@link ClusterService} shards.
+ * <p>
+ * Lookup counts are summed across the replicas in a Redis sorted set, so a server popular on one replica is
+ * crawled by whichever owns its shard. The owner of shard 0 halves the counts every crawl so old demand fades.
+ */
+@Service
+@Slf4j
+public class ServerCrawlerService {
+    private static final String REQUESTED_KEY = "server-crawler:requested";
+    private static final int MAX_REQUESTED_SERVERS = 10_000;
+    private static final int INCREMENT_BATCH_SIZE = 500;
+
+    /** Adds lookup counts, ARGV holds member and count pairs, and trims the set to the most requested ARGV[1]. */
+    private static final RedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>("""
+            for i = 2, #ARGV, 2 do
+                redis.call('ZINCRBY', KEYS[1], ARGV[i + 1], ARGV[i])
+            end
+            local excess = redis.call('ZCARD', KEYS[1]) - tonumber(ARGV[1])
+            if excess > 0 then
+                redis.call('ZREMRANGEBYRANK', KEYS[1], 0, excess - 1)
+            end
+            return 0
+            """, Long.class);
+
+    /** Halves every count, dropping the servers left below one lookup. */
+    private static final RedisScript<Long> DECAY_SCRIPT = new DefaultRedisScript<>("""
+            local entries = redis.call('ZRANGE', KEYS[1], 0, -1, 'WITHSCORES')
+            for i = 1, #entries, 2 do
+                local count = math.floor(tonumber(entries[i + 1]) / 2)
+                if count < 1 then
+                    redis.call('ZREM', KEYS[1], entries[i])
+                else
+                    redis.call('ZADD', KEYS[1], count, entries[i])
+                end
+            end
+            return 0
+            """, Long.class);
+
+    private final ServerService serverService;
+    private final ServerRegistryService serverRegistryService;
+    private final ClusterService clusterService;
+    private final RedisTemplate<String, String> redis;
+    private final AtomicBoolean crawling = new AtomicBoolean();
+
+    /** Servers that failed their last ping, by cache key. */
+    private final Map<String, Backoff> backoffs = new ConcurrentHashMap<>();
+
+    @Value("${mc-utils.server-crawler.enabled:true}")
+    private boolean enabled;
+    @Value("${mc-utils.cache.servers.enabled}")
+    private boolean cacheEnabled;
+    @Value("${mc-utils.server-crawler.interval-ms:20000}")
+    private long intervalMs;
+    @Value("${mc-utils.server-crawler.top-requested:500}")
+    private int topRequested;
+    @Value("${mc-utils.server-crawler.concurrency:256}")
+    private int concurrency;
+    @Value("${mc-utils.server-crawler.max-backoff-minutes:30}")
+    private long maxBackoffMinutes;
+
+    public ServerCrawlerService(ServerService serverService, ServerRegistryService serverRegistryService, ClusterService clusterService,
+                                @Qualifier("queueRedisTemplate") RedisTemplate<String, String> redis) {
+        this.serverService = serverService;
+        this.serverRegistryService = serverRegistryService;
+        this.clusterService = clusterService;
+        this.redis = redis;
+    }
+
+    @Scheduled(fixedDelayString = "${mc-utils.server-crawler.interval-ms:20000}", initialDelayString = "${mc-utils.server-crawler.interval-ms:20000}")
+    public void crawl() {
+        if (!enabled || !cacheEnabled || !crawling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            List<ServerService.ServerTarget> targets = getTargets();
+            Semaphore permits = new Semaphore(concurrency);
+            List<Future<Void>> futures = new ArrayList<>(targets.size());
+            for (ServerService.ServerTarget target : targets) {
+                Backoff backoff = backoffs.get(target.cacheKey());
+                if (backoff != null && backoff.retryAt() > started) {
+                    MetricService.getMetric(ServerCrawlerMetric.class).record(ServerCrawlerMetric.Result.BACKING_OFF);
+                    continue;
+                }
+                permits.acquire();
+                futures.add(Main.EXECUTOR.submit(() -> {
+                    try {
+                        ping(target);
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                }));
+            }
+            FutureUtils.awaitAll(futures, "server crawl");
+            long duration = System.currentTimeMillis() - started;
+            MetricService.getMetric(ServerCrawlerMetric.class).recordCrawl(duration);
+            backoffs.values().removeIf(backoff -> backoff.retryAt() < started - Duration.ofMinutes(maxBackoffMinutes).toMillis());
+            log.debug("Crawled {} servers in {}ms", futures.size(), duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            crawling.set(false);
+        }
+    }
+
+    /**
+     * Gets the servers this node should crawl: the registry's and the most requested ones, without duplicates.
+     */
+    private List<ServerService.ServerTarget> getTargets() {
+        Map<String, ServerService.ServerTarget> targets = new LinkedHashMap<>();
+        for (ServerRegistryEntry entry : serverRegistryService.getEntries()) {
+            if (entry.platform() == null || entry.hostnames().isEmpty()) {
+                continue;
+            }
+            ServerService.ServerTarget target = new ServerService.ServerTarget(entry.platform(), entry.hostnames().getFirst(), entry.platform().getDefaultPort());
+            targets.putIfAbsent(target.cacheKey(), target);
+        }
+
+        Map<ServerService.ServerTarget, Long> localCounts = serverService.takeRequestCounts();
+        List<ServerService.ServerTarget> requested;
+        try {
+            requested = getClusterMostRequested(localCounts);
+        } catch (Exception e) {
+            // Without the shared counts no other node knows about this node's demand, so crawl it here unsharded
+            log.warn("Failed to share server lookup counts, crawling this node's most requested servers: {}", e.toString());
+            List<ServerService.ServerTarget> result = new ArrayList<>(targets.size() + topRequested);
+            result.addAll(filterOwned(targets.values()));
+            localCounts.entrySet().stream()
+                    .sorted(Map.Entry.<ServerService.ServerTarget, Long>comparingByValue().reversed())
+                    .limit(topRequested)
+                    .map(Map.Entry::getKey)
+                    .filter(target -> !targets.containsKey(target.cacheKey()))
+                    .forEach(result::add);
+            return result;
+        }
+        for (ServerService.ServerTarget target : requested) {
+            targets.putIfAbsent(target.cacheKey(), target);
+        }
+        return filterOwned(targets.values());
+    }
+
+    /**
+     * Adds this node's lookup counts to the cluster's and gets the most requested servers of the cluster.
+     *
+     * @param localCounts the lookups on this node since the last crawl
+     * @return the most requested servers, most requested first
+     */
+    private List<ServerService.ServerTarget> getClusterMostRequested(Map<ServerService.ServerTarget, Long> localCounts) {
+        List<String> args = new ArrayList<>();
+        for (Map.Entry<ServerService.ServerTarget, Long> entry : localCounts.entrySet()) {
+            if (args.isEmpty()) {
+                args.add(String.valueOf(MAX_REQUESTED_SERVERS));
+            }
+            args.add(toMember(entry.getKey()));
+            args.add(String.valueOf(entry.getValue()));
+            if (args.size() > INCREMENT_BATCH_SIZE * 2) {
+                redis.execute(INCREMENT_SCRIPT, List.of(REQUESTED_KEY), args.toArray());
+                args.clear();
+            }
+        }
+        if (!args.isEmpty()) {
+            redis.execute(INCREMENT_SCRIPT, List.of(REQUESTED_KEY), args.toArray());
+        }
+        Set<String> members = redis.opsForZSet().reverseRange(REQUESTED_KEY, 0, topRequested - 1);
+        if (ownsShard(0)) {
+            redis.execute(DECAY_SCRIPT, List.of(REQUESTED_KEY));
+        }
+        List<ServerService.ServerTarget> targets = new ArrayList<>();
+        if (members != null) {
+            for (String member : members) {
+                ServerService.ServerTarget target = fromMember(member);
+                if (target != null) {
+                    targets.add(target);
+                }
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Keeps the servers that hash into this node's shards.
+     */
+    private List<ServerService.ServerTarget> filterOwned(Collection<ServerService.ServerTarget> targets) {
+        int shardCount = clusterService.getShardCount();
+        int[] ownedShards = clusterService.getOwnedShards();
+        if (ownedShards.length == shardCount) {
+            return List.copyOf(targets);
+        }
+        BitSet owned = new BitSet(shardCount);
+        for (int shard : ownedShards) {
+            owned.set(shard);
+        }
+        return targets.stream()
+                .filter(target -> owned.get(Math.floorMod(target.cacheKey().hashCode(), shardCount)))
+                .toList();
+    }
+
+    private boolean ownsShard(int shard) {
+        for (int owned : clusterService.getOwnedShards()) {
+            if (owned == shard) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Encodes a server as a sorted set member, hostnames never contain a '|'.
+     */
+    private static String toMember(ServerService.ServerTarget target) {
+        return target.platform().name() + "|" + target.port() + "|" + target.hostname();
+    }
+
+    private static ServerService.ServerTarget fromMember(String member) {
+        String[] parts = member.split("\\|", 3);
+        Platform platform = parts.length == 3 ? EnumUtils.getEnumConstant(Platform.class, parts[0]) : null;
+        if (platform == null) {
+            return null;
+        }
+        try {
+            return new ServerService.ServerTarget(platform, parts[2], Integer.parseInt(parts[1]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void ping(ServerService.ServerTarget target) {
+        try {
+            serverService.pingServer(target);
+            backoffs.remove(target.cacheKey());
+            MetricService.getMetric(ServerCrawlerMetric.class).record(ServerCrawlerMetric.Result.SUCCESS);
+        } catch (Exception e) {
+            Backoff backoff = backoffs.compute(target.cacheKey(), (key, previous) -> {
+                int failures = previous == null ? 1 : previous.failures() + 1;
+                long delay = Math.min(intervalMs << Math.min(failures, 20), Duration.ofMinutes(maxBackoffMinutes).toMillis());
+                return new Backoff(failures, System.currentTimeMillis() + delay);
+            });
+            MetricService.getMetric(ServerCrawlerMetric.class).record(ServerCrawlerMetric.Result.FAILURE);
+            log.debug("Crawler failed to ping {}:{} ({} failures): {}", target.hostname(), target.port(), backoff.failures(), e.getMessage());
+        }
+    }
+
+    /**
+     * @param failures the number of failed pings in a row
+     * @param retryAt  when the server is pinged again, in epoch millis
+     */
+    private record Backoff(int failures, long retryAt) {}
+}
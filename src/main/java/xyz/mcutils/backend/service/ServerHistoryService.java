@@ -0,0 +1,398 @@
+package xyz.mcutils.backend.service;
+
+import com.google.gson.stream.JsonWriter;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import xyz.mcutils.backend.exception.impl.BadRequestException;
+import xyz.mcutils.backend.model.domain.server.MinecraftServer;
+import xyz.mcutils.backend.model.domain.server.bedrock.BedrockMinecraftServer;
+import xyz.mcutils.backend.model.domain.server.java.JavaMinecraftServer;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Player count history of servers, from the result of every ping.
+ * <p>
+ * Samples are buffered in memory and written in batches to {@code server_status_samples}, a table partitioned by
+ * day. They are downsampled into {@code server_status_rollups} at 1 minute, 1 hour and 1 day resolutions, each
+ * kept for its own retention, and raw partitions past theirs are dropped whole. The rollups recompute their last
+ * few buckets every run, so late samples and runs missed while cluster shard 0 changes hands are caught up on.
+ * Rollups and retention only run on the replica holding shard 0, the aggregation is done once and concurrent
+ * upserts of the same rows cannot deadlock each other.
+ */
+@Service
+@Slf4j
+public class ServerHistoryService {
+    private static final int MAX_BUFFERED_SAMPLES = 100_000;
+    private static final int WRITE_BATCH_SIZE = 1_000;
+    private static final int STREAM_FETCH_SIZE = 1_000;
+    private static final int PARTITIONS_AHEAD = 2;
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final String INSERT_SAMPLE = """
+            INSERT INTO server_status_samples (server, sampled_at, online, max_players, latency_ms, protocol)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+    private static final String ROLLUP_UPSERT = """
+            ON CONFLICT (server, resolution, bucket) DO UPDATE SET
+                samples = EXCLUDED.samples,
+                online_avg = EXCLUDED.online_avg,
+                online_min = EXCLUDED.online_min,
+                online_max = EXCLUDED.online_max,
+                max_players = EXCLUDED.max_players,
+                latency_avg = EXCLUDED.latency_avg,
+                protocol = EXCLUDED.protocol
+            """;
+    private static final String ROLLUP_FROM_SAMPLES = """
+            INSERT INTO server_status_rollups (server, resolution, bucket, samples, online_avg, online_min, online_max, max_players, latency_avg, protocol)
+            SELECT server, '1m', date_trunc('minute', sampled_at, 'UTC'), count(*), avg(online), min(online), max(online),
+                   max(max_players), avg(latency_ms), max(protocol)
+            FROM server_status_samples
+            WHERE sampled_at >= ? AND sampled_at < ?
+            GROUP BY server, date_trunc('minute', sampled_at, 'UTC')
+            """ + ROLLUP_UPSERT;
+    /** Formatted with the unit to truncate to, the same expression has to be in the select and group by. */
+    private static final String ROLLUP_FROM_ROLLUPS = """
+            INSERT INTO server_status_rollups (server, resolution, bucket, samples, online_avg, online_min, online_max, max_players, latency_avg, protocol)
+            SELECT server, ?, date_trunc('%1$s', bucket, 'UTC'), sum(samples), sum(online_avg * samples) / sum(samples), min(online_min),
+                   max(online_max), max(max_players), sum(latency_avg * samples) / nullif(sum(samples) FILTER (WHERE latency_avg IS NOT NULL), 0),
+                   max(protocol)
+            FROM server_status_rollups
+            WHERE resolution = ? AND bucket >= ? AND bucket < ?
+            GROUP BY server, date_trunc('%1$s', bucket, 'UTC')
+            """ + ROLLUP_UPSERT;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ClusterService clusterService;
+
+    private final Queue<Sample> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger buffered = new AtomicInteger();
+
+    @Value("${mc-utils.server-history.enabled:true}")
+    private boolean enabled;
+    @Value("${mc-utils.server-history.retention-days.raw:7}")
+    private int rawRetentionDays;
+    @Value("${mc-utils.server-history.retention-days.minute:14}")
+    private int minuteRetentionDays;
+    @Value("${mc-utils.server-history.retention-days.hour:180}")
+    private int hourRetentionDays;
+
+    public ServerHistoryService(JdbcTemplate jdbcTemplate, DataSource dataSource, PlatformTransactionManager transactionManager,
+                                ClusterService clusterService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(STREAM_FETCH_SIZE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.clusterService = clusterService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        maintainPartitions();
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void onContextClosed() {
+        flush();
+    }
+
+    /**
+     * Records the result of a ping, written with the next batch.
+     *
+     * @param server the server's cache key
+     * @param result the pinged server, with its latency if it answered the ping
+     */
+    public void record(String server, MinecraftServer result) {
+        if (!enabled) {
+            return;
+        }
+        if (buffered.incrementAndGet() > MAX_BUFFERED_SAMPLES) {
+            buffered.decrementAndGet(); // The database is falling behind, drop rather than grow without bound
+            return;
+        }
+        Integer protocol = switch (result) {
+            case JavaMinecraftServer javaServer -> javaServer.getVersion() == null ? null : javaServer.getVersion().getProtocol();
+            case BedrockMinecraftServer bedrockServer -> bedrockServer.getVersion() == null ? null : bedrockServer.getVersion().protocol();
+            default -> null;
+        };
+        int online = result.getPlayers() == null ? 0 : result.getPlayers().online();
+        int max = result.getPlayers() == null ? 0 : result.getPlayers().max();
+        Integer latencyMs = result.getLatency() == null ? null : (int) Math.min(result.getLatency(), Integer.MAX_VALUE);
+        buffer.add(new Sample(server, Instant.now(), online, max, latencyMs, protocol));
+    }
+
+    /**
+     * Writes the buffered samples.
+     */
+    @Scheduled(fixedDelay = 5000)
+    public void flush() {
+        List<Sample> batch = new ArrayList<>(WRITE_BATCH_SIZE);
+        Sample sample;
+        while ((sample = buffer.poll()) != null) {
+            buffered.decrementAndGet();
+            batch.add(sample);
+            if (batch.size() == WRITE_BATCH_SIZE) {
+                write(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void write(List<Sample> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SAMPLE, batch, batch.size(), (statement, sample) -> {
+                statement.setString(1, sample.server());
+                statement.setTimestamp(2, Timestamp.from(sample.sampledAt()));
+                statement.setInt(3, sample.online());
+                statement.setInt(4, sample.max());
+                if (sample.latencyMs() == null) {
+                    statement.setNull(5, Types.INTEGER);
+                } else {
+                    statement.setInt(5, sample.latencyMs());
+                }
+                if (sample.protocol() == null) {
+                    statement.setNull(6, Types.INTEGER);
+                } else {
+                    statement.setInt(6, sample.protocol());
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Failed to write {} server status samples: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Rolls the last few minutes of samples up into 1 minute buckets.
+     */
+    @Scheduled(cron = "10 * * * * *") // Every minute, after the previous minute's samples are flushed
+    public void rollupMinutes() {
+        if (!enabled || !ownsMaintenance()) {
+            return;
+        }
+        try {
+            Instant to = Instant.now().truncatedTo(ChronoUnit.MINUTES);
+            jdbcTemplate.update(ROLLUP_FROM_SAMPLES, Timestamp.from(to.minus(5, ChronoUnit.MINUTES)), Timestamp.from(to));
+        } catch (Exception e) {
+            log.error("Failed to roll up the server status samples", e);
+        }
+    }
+
+    /**
+     * Rolls minutes up into hours and hours up into days, current buckets included so the graphs stay live.
+     */
+    @Scheduled(cron = "30 */5 * * * *") // Every 5 minutes
+    public void rollupHoursAndDays() {
+        if (!enabled || !ownsMaintenance()) {
+            return;
+        }
+        try {
+            Instant now = Instant.now();
+            Instant hours = now.truncatedTo(ChronoUnit.HOURS).minus(1, ChronoUnit.HOURS);
+            jdbcTemplate.update(ROLLUP_FROM_ROLLUPS.formatted("hour"), Resolution.HOUR.getLabel(), Resolution.MINUTE.getLabel(),
+                    Timestamp.from(hours), Timestamp.from(now));
+            Instant days = now.truncatedTo(ChronoUnit.DAYS).minus(1, ChronoUnit.DAYS);
+            jdbcTemplate.update(ROLLUP_FROM_ROLLUPS.formatted("day"), Resolution.DAY.getLabel(), Resolution.HOUR.getLabel(),
+                    Timestamp.from(days), Timestamp.from(now));
+        } catch (Exception e) {
+            log.error("Failed to roll up the server status history", e);
+        }
+    }
+
+    /**
+     * Creates the partitions for the next days, and on one replica drops the ones and rollups past their retention.
+     */
+    @Scheduled(cron = "0 15 * * * *") // Every hour
+    public void maintainPartitions() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            LocalDate today = LocalDate.now(ZoneOffset.UTC);
+            for (int day = 0; day <= PARTITIONS_AHEAD; day++) {
+                LocalDate date = today.plusDays(day);
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS %s PARTITION OF server_status_samples FOR VALUES FROM ('%s') TO ('%s')"
+                        .formatted(partitionName(date), date.atStartOfDay(ZoneOffset.UTC), date.plusDays(1).atStartOfDay(ZoneOffset.UTC)));
+            }
+            if (!ownsMaintenance()) {
+                return;
+            }
+            // Catch up on a few missed days too, in case this did not run for a while
+            for (int day = rawRetentionDays; day < rawRetentionDays + 30; day++) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partitionName(today.minusDays(day)));
+            }
+            deleteRollups(Resolution.MINUTE, minuteRetentionDays);
+            deleteRollups(Resolution.HOUR, hourRetentionDays);
+        } catch (Exception e) {
+            log.error("Failed to maintain the server status partitions", e);
+        }
+    }
+
+    private void deleteRollups(Resolution resolution, int retentionDays) {
+        jdbcTemplate.update("DELETE FROM server_status_rollups WHERE resolution = ? AND bucket < ?",
+                resolution.getLabel(), Timestamp.from(Instant.now().minus(retentionDays, ChronoUnit.DAYS)));
+    }
+
+    private boolean ownsMaintenance() {
+        for (int shard : clusterService.getOwnedShards()) {
+            if (shard == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String partitionName(LocalDate date) {
+        return "server_status_samples_p" + date.format(PARTITION_SUFFIX);
+    }
+
+    /**
+     * Checks that a range can be read at a resolution.
+     *
+     * @param resolution the resolution of the points
+     * @param from       the start of the range, inclusive
+     * @param to         the end of the range, exclusive
+     */
+    public void checkRange(Resolution resolution, Instant from, Instant to) {
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("The start of the range must be before its end");
+        }
+        if (Duration.between(from, to).compareTo(resolution.getMaxRange()) > 0) {
+            throw new BadRequestException("The range can be at most %s days at the %s resolution"
+                    .formatted(resolution.getMaxRange().toDays(), resolution.getLabel()));
+        }
+    }
+
+    /**
+     * Streams the history of a server as a JSON array, oldest first. The range
+     * must have passed {@link #checkRange} first.
+     *
+     * @param server       the server's cache key
+     * @param resolution   the resolution of the points
+     * @param from         the start of the range, inclusive
+     * @param to           the end of the range, exclusive
+     * @param outputStream the stream to write to
+     */
+    public void streamHistory(String server, Resolution resolution, Instant from, Instant to, OutputStream outputStream) throws IOException {
+        JsonWriter writer = new JsonWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.beginArray();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                if (resolution == Resolution.RAW) {
+                    streamingJdbcTemplate.query("""
+                            SELECT sampled_at, online, max_players, latency_ms, protocol FROM server_status_samples
+                            WHERE server = ? AND sampled_at >= ? AND sampled_at < ? ORDER BY sampled_at
+                            """, resultSet -> {
+                        try {
+                            writer.beginObject();
+                            writer.name("time").value(resultSet.getTimestamp(1).getTime());
+                            writer.name("online").value(resultSet.getInt(2));
+                            writer.name("max").value(resultSet.getInt(3));
+                            writer.name("latency").value((Number) resultSet.getObject(4));
+                            writer.name("protocol").value((Number) resultSet.getObject(5));
+                            writer.endObject();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, server, Timestamp.from(from), Timestamp.from(to));
+                    return;
+                }
+                streamingJdbcTemplate.query("""
+                        SELECT bucket, samples, online_avg, online_min, online_max, max_players, latency_avg, protocol FROM server_status_rollups
+                        WHERE server = ? AND resolution = ? AND bucket >= ? AND bucket < ? ORDER BY bucket
+                        """, resultSet -> {
+                    try {
+                        writer.beginObject();
+                        writer.name("time").value(resultSet.getTimestamp(1).getTime());
+                        writer.name("samples").value(resultSet.getInt(2));
+                        writer.name("online").value(resultSet.getFloat(3));
+                        writer.name("onlineMin").value(resultSet.getInt(4));
+                        writer.name("onlineMax").value(resultSet.getInt(5));
+                        writer.name("max").value(resultSet.getInt(6));
+                        writer.name("latency").value((Number) resultSet.getObject(7));
+                        writer.name("protocol").value((Number) resultSet.getObject(8));
+                        writer.endObject();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, server, resolution.getLabel(), Timestamp.from(from), Timestamp.from(to));
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.endArray();
+        writer.flush();
+    }
+
+    /**
+     * The resolutions the history can be read at.
+     */
+    @Getter
+    public enum Resolution {
+        RAW("raw", Duration.ofDays(2)),
+        MINUTE("1m", Duration.ofDays(7)),
+        HOUR("1h", Duration.ofDays(180)),
+        DAY("1d", Duration.ofDays(3650));
+
+        /**
+         * The label of this resolution, as stored and requested.
+         */
+        private final String label;
+
+        /**
+         * The longest range that can be read at this resolution.
+         */
+        private final Duration maxRange;
+
+        Resolution(String label, Duration maxRange) {
+            this.label = label;
+            this.maxRange = maxRange;
+        }
+
+        /**
+         * Gets a resolution by its label.
+         *
+         * @param label the label, e.g. {@code 1h}
+         * @return the resolution, or null if there is none
+         */
+        public static Resolution byLabel(String label) {
+            for (Resolution resolution : values()) {
+                if (resolution.label.equalsIgnoreCase(label)) {
+                    return resolution;
+                }
+            }
+            return null;
+        }
+    }
+
+    private record Sample(String server, Instant sampledAt, int online, int max, Integer latencyMs, Integer protocol) {}
+}
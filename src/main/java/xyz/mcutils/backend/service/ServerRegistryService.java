@@ -10,21 +10,17 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import xyz.mcutils.backend.Constants;
 import xyz.mcutils.backend.Main;
-import xyz.mcutils.backend.common.DomainUtils;
 import xyz.mcutils.backend.common.EnumUtils;
 import xyz.mcutils.backend.common.FuzzySearch;
 import xyz.mcutils.backend.common.WebRequest;
+import xyz.mcutils.backend.common.search.TextSearchIndex;
 import xyz.mcutils.backend.model.domain.server.Platform;
 import xyz.mcutils.backend.model.domain.serverregistry.ServerRegistryEntry;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Optional;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.*;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -40,7 +36,7 @@ public class ServerRegistryService {
 
     private final GitHub githubClient;
     private final WebRequest webRequest;
-    private final List<ServerRegistryEntry> entries = new CopyOnWriteArrayList<>();
+    private volatile Registry registry = Registry.of(List.of());
     private String lastSeenHash = null;
 
     @SneakyThrows
@@ -52,6 +48,15 @@ public class ServerRegistryService {
         Main.EXECUTOR.submit(this::updateRegistry);
     }
 
+    /**
+     * Gets every entry of the server registry.
+     *
+     * @return the registry entries
+     */
+    public List<ServerRegistryEntry> getEntries() {
+        return registry.entries();
+    }
+
     /**
      * Searches the server registry for entries that match the given query.
      *
@@ -59,13 +64,7 @@ public class ServerRegistryService {
      * @return the entries that match the query, best matches first
      */
     public List<ServerRegistryEntry> searchEntries(String query) {
-        return FuzzySearch.search(entries, query, entry -> {
-            List<String> texts = new ArrayList<>();
-            texts.add(entry.displayName());
-            texts.addAll(entry.hostnames());
-            texts.addAll(entry.wildcardHostnames());
-            return texts;
-        }, FuzzySearch.DEFAULT_MAX_FUZZY_DISTANCE, MAX_RETURNED_RESULTS);
+        return registry.searchIndex().search(query, FuzzySearch.DEFAULT_MAX_FUZZY_DISTANCE, MAX_RETURNED_RESULTS);
     }
 
     /**
@@ -79,8 +78,7 @@ public class ServerRegistryService {
         if (hostname == null || hostname.isBlank()) {
             return Optional.empty();
         }
-        String normalized = hostname.strip().toLowerCase();
-        return entries.stream().filter(entry -> entry.hostnames().stream().anyMatch(h -> h != null && h.equalsIgnoreCase(normalized)) || entry.wildcardHostnames().stream().anyMatch(p -> DomainUtils.matchesWildcard(p, normalized))).findFirst();
+        return registry.findByHostname(hostname.strip().toLowerCase());
     }
 
     /**
@@ -149,12 +147,69 @@ public class ServerRegistryService {
         if (zipBytes == null) {
             return;
         }
-        List<ServerRegistryEntry> newEntries = extractManifestsFromZip(zipBytes);
-        entries.clear();
-        entries.addAll(newEntries);
+        Registry newRegistry = Registry.of(extractManifestsFromZip(zipBytes));
+        registry = newRegistry;
 
-        log.info("Found {} server registry entries! (commit hash: {})", entries.size(), commitHash);
+        log.info("Found {} server registry entries! (commit hash: {})", newRegistry.entries().size(), commitHash);
 
         lastSeenHash = commitHash;
     }
+
+    /**
+     * The entries of one registry commit along with the indexes built from them, swapped in as a whole.
+     *
+     * @param entries       the registry entries
+     * @param searchIndex   the search index over the entries' names and hostnames
+     * @param byHostname    exact hostnames (and the bare domain of each wildcard) to the first entry listing them
+     * @param byWildcard    wildcard domains ({@code example.com} for {@code *.example.com}) to the first entry listing them
+     */
+    private record Registry(List<ServerRegistryEntry> entries, TextSearchIndex<ServerRegistryEntry> searchIndex,
+                            Map<String, Integer> byHostname, Map<String, Integer> byWildcard) {
+        static Registry of(List<ServerRegistryEntry> entries) {
+            Map<String, Integer> byHostname = new HashMap<>();
+            Map<String, Integer> byWildcard = new HashMap<>();
+            for (int i = 0; i < entries.size(); i++) {
+                ServerRegistryEntry entry = entries.get(i);
+                for (String hostname : entry.hostnames()) {
+                    if (hostname != null) {
+                        byHostname.putIfAbsent(hostname.toLowerCase(), i);
+                    }
+                }
+                for (String pattern : entry.wildcardHostnames()) {
+                    if (pattern == null) {
+                        continue;
+                    }
+                    String lower = pattern.toLowerCase();
+                    if (lower.startsWith("*.")) {
+                        byWildcard.putIfAbsent(lower.substring(2), i);
+                        byHostname.putIfAbsent(lower.substring(2), i); // *.example.com covers example.com too
+                    } else {
+                        byHostname.putIfAbsent(lower, i);
+                    }
+                }
+            }
+            return new Registry(List.copyOf(entries), TextSearchIndex.build(entries, entry -> {
+                List<String> texts = new ArrayList<>();
+                texts.add(entry.displayName());
+                texts.addAll(entry.hostnames());
+                texts.addAll(entry.wildcardHostnames());
+                return texts;
+            }, FuzzySearch.DEFAULT_TOKEN_PATTERN), Map.copyOf(byHostname), Map.copyOf(byWildcard));
+        }
+
+        /**
+         * Finds the first entry (in registry order) listing the hostname or a wildcard covering it,
+         * checking the hostname and then each parent domain.
+         *
+         * @param hostname the lowercased hostname
+         * @return the matching entry, or empty if none match
+         */
+        Optional<ServerRegistryEntry> findByHostname(String hostname) {
+            int best = byHostname.getOrDefault(hostname, Integer.MAX_VALUE);
+            for (int dot = hostname.indexOf('.'); dot >= 0; dot = hostname.indexOf('.', dot + 1)) {
+                best = Math.min(best, byWildcard.getOrDefault(hostname.substring(dot + 1), Integer.MAX_VALUE));
+            }
+            return best == Integer.MAX_VALUE ? Optional.empty() : Optional.of(entries.get(best));
+        }
+    }
 }
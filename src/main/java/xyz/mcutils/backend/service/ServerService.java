@@ -1,6 +1,7 @@
 package xyz.mcutils.backend.service;
 
-import com.google.common.net.InetAddresses;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.minio.org.apache.commons.validator.routines.InetAddressValidator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -8,13 +9,14 @@ import org.springframework.stereotype.Service;
 import xyz.mcutils.backend.Main;
 import xyz.mcutils.backend.common.EnumUtils;
 import xyz.mcutils.backend.common.ImageUtils;
+import xyz.mcutils.backend.common.net.SubnetMatcher;
 import xyz.mcutils.backend.common.renderer.impl.server.ServerPreviewRenderer;
 import xyz.mcutils.backend.exception.impl.BadRequestException;
 import xyz.mcutils.backend.exception.impl.NotFoundException;
+import xyz.mcutils.backend.metric.impl.server.ServerLatencyMetric;
 import xyz.mcutils.backend.metric.impl.server.ServerLookupMetric;
 import xyz.mcutils.backend.model.domain.IpLookup;
 import xyz.mcutils.backend.model.domain.dns.DNSRecord;
-import xyz.mcutils.backend.model.domain.dns.impl.ARecord;
 import xyz.mcutils.backend.model.domain.dns.impl.SRVRecord;
 import xyz.mcutils.backend.model.domain.server.Favicon;
 import xyz.mcutils.backend.model.domain.server.MinecraftServer;
@@ -25,25 +27,32 @@ import xyz.mcutils.backend.model.persistence.redis.CachedServerPreview;
 import xyz.mcutils.backend.repository.redis.MinecraftServerCacheRepository;
 import xyz.mcutils.backend.repository.redis.ServerPreviewCacheRepository;
 
-import java.net.InetAddress;
-import java.net.InetSocketAddress;
-import java.util.ArrayList;
-import java.util.Base64;
-import java.util.List;
-import java.util.Optional;
+import java.time.Duration;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 @Slf4j
 public class ServerService {
     public static final String DEFAULT_SERVER_ICON = "iVBORw0KGgoAAAANSUhEUgAAAEAAAABACAMAAACdt4HsAAAASFBMVEWwsLBBQUE9PT1JSUlFRUUuLi5MTEyzs7M0NDQ5OTlVVVVQUFAmJia5ubl+fn5zc3PFxcVdXV3AwMCJiYmUlJRmZmbQ0NCjo6OL5p+6AAAFVklEQVRYw+1W67K0KAzkJnIZdRAZ3/9NtzvgXM45dX7st1VbW7XBUVDSdEISRqn/5R+T82/+nsr/XZn/SHm/3x9/ArA/IP8qwPK433d44VubZ/XT6/cJy0L792VZfnDrcRznr86d748u92X5vtaxOe228zcCy+MSMpg/5SwRopsYMv8oigCwngbQhE/rzhwAYMpxnvMvHhgy/8AgByJolzb5pPqEbvtgMBBmtvkbgxKmaaIZ5TyPum6Viue6te241N+s+W6nOlucgjEx6Nay9zZta1XVxejW+Q5ZhhkDS31lgOTegjUBor33CQilbC2GYGy9y9bN8ytevjE4a2stajHDAgAcUkoYwzO6zQi8ZflC+XO0+exiuNa3OQtIJOCk13neUjv7VO7Asu/3LwDFeg37sQtQhy4lAQH6IR9ztca0E3oI5PtDAlJ1tHGplrJ12jjrrXPWYvXsU042Bl/qUr3B9qzPSKaovpvjgglYL2F1x+Zs7gIvpLYuq46wr3H5/RJxyvM6sXOY762oU4YZ3mAz1lpc9O3Y30VJUM/iWhBIib63II/LA4COEMxcSmrH4ddl/wTYe3RIO0vK2VI9wQy6AxRsJpb3AAALvXb6TxvUCYSdOQo5Mh0GySkJc7rB405GUEfzbbl/iFpPoNQVNUQAZG06nkI6RCABRqRA9IimH6Up5Mhybtu2IlewB2Sf6AmQ4ZU9rfBELvyA23Yub6LWWtUBgK3OB79L7FILLDKWd4wpxmMRAMoLQR1ItLoiWUmhFtjptab7LQDgRARliLITLrcBkHNp9VACUH1UDRQEYGuYxzyM9H0mBccQNnCkQ3Q1UHBaO6sNyw0CelEtBGXKSoE+fJWZh5GupyneMIkCOMESAniMAzMreLvuO+pnmBQSp4C+ELCiMSGVLPh7M023SSBAiAA5yPh2m0wigEbWKnw3qDrrscF00cciCATGwNQRAv2YGvyD4Y36QGhqOS4AcABAA88oGvBCRho5H2+UiW6EfyM1L5l8a56rqdvE6lFakc3ScVDOBNBUoFM8c1vgnhAG5VsAqMD6Q9IwwtAkR39iGEQF1ZBxgU+v9UGL6MBQYiTdJllIBtx5y0rixGdAZ1YysbS53TAVy3vf4aabEpt1T0HoB2Eg4Yv5OKNwyHgmNvPKaQAYLG3EIyIqcL6Fj5C2jhXL9EpCdRMROE5nCW3qm1vfR6wYh0HKGG3wY+JgLkUWQ/WMfI8oMvIWMY7aCncNxxpSmHRUCEzDdSR0+dRwIQaMWW1FE0AOGeKkx0OLwYanBK3qfC0BSmIlozkuFcvSkulckoIB2FbHWu0y9gMHsEapMMEoySNUA2RDrduxIqr5POQV2zZ++IBOwVrFO9THrtjU2uWsCMZjxXl88Hmeaz1rPdAqXyJl68F5RTtdvN1aIyYEAMAWJaCMHvon7s23jljlxoKBEgNv6LQ25/rZIQyOdwDO3jLsqE2nbVAil21LxqFpZ2xJ3CFuE33QCo7kfkfO8kpW6gdioxdzZDLOaMMwidzeKD0RxaD7cnHHsu0jVkW5oTwwMGI0lwwA36u2nMY8AKzErLW9JxFiteyzZsAAxY1vPe5Uf68lIDVjV8JZpPfjxbc/QuyRKdAQJaAdIA4tCTht+kQJ1I4nbdjfHxgpTSLyI19pb/iuK7+9YJaZCxEIKj79YZ6uDU8f97878teRN1FzA7OvquSrVKUgk+S6ROpJfA7GpN6RPkx4voshXgu91p7CGHeA+IY8dUUVXwT7PYw12Xsj0Lfh9X4ac9XgKW86cj8bPh8XmyDOD88FLoB+YPXp4YtyB3gBPXu98xeRI2zploVCBQAAAABJRU5ErkJggg==";
     private static final InetAddressValidator IP_VALIDATOR = InetAddressValidator.getInstance();
+    private static final int MAX_TRACKED_REQUESTED_SERVERS = 50_000;
     private final MojangService mojangService;
     private final MaxMindService maxMindService;
     private final DNSService dnsService;
     private final ServerRegistryService serverRegistryService;
+    private final ServerHistoryService serverHistoryService;
     private final MinecraftServerCacheRepository serverCacheRepository;
     private final ServerPreviewCacheRepository serverPreviewCacheRepository;
+    private final SubnetMatcher blacklistedSubnets;
+    /**
+     * How often each server was looked up recently, for the crawler to keep the popular ones cached.
+     */
+    private final Cache<String, RequestedServer> requestedServers = Caffeine.newBuilder()
+            .maximumSize(MAX_TRACKED_REQUESTED_SERVERS)
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
     @Value("${mc-utils.cache.servers.enabled}")
     private boolean cacheEnabled;
     @Value("${mc-utils.renderer.server-preview.cache}")
@@ -58,16 +67,16 @@ public class ServerService {
     private int javaPingerTimeout;
     @Value("${mc-utils.server-pinger.bedrock.timeout}")
     private int bedrockPingerTimeout;
-    @Value("#{'${mc-utils.server-pinger.blacklisted-subnets}'.split(',')}")
-    private List<String> blacklistedSubnets;
 
-    public ServerService(MojangService mojangService, MaxMindService maxMindService, DNSService dnsService, ServerRegistryService serverRegistryService, MinecraftServerCacheRepository serverCacheRepository, ServerPreviewCacheRepository serverPreviewCacheRepository) {
+    public ServerService(MojangService mojangService, MaxMindService maxMindService, DNSService dnsService, ServerRegistryService serverRegistryService, ServerHistoryService serverHistoryService, MinecraftServerCacheRepository serverCacheRepository, ServerPreviewCacheRepository serverPreviewCacheRepository, SubnetMatcher blacklistedSubnets) {
         this.mojangService = mojangService;
         this.maxMindService = maxMindService;
         this.dnsService = dnsService;
         this.serverRegistryService = serverRegistryService;
+        this.serverHistoryService = serverHistoryService;
         this.serverCacheRepository = serverCacheRepository;
         this.serverPreviewCacheRepository = serverPreviewCacheRepository;
+        this.blacklistedSubnets = blacklistedSubnets;
     }
 
     /**
@@ -78,6 +87,38 @@ public class ServerService {
      * @return the server
      */
     public CachedMinecraftServer getServer(String platformName, String hostname) {
+        ServerTarget target = parseTarget(platformName, hostname);
+        log.debug("Getting server: {}:{}", target.hostname(), target.port());
+
+        // Check if the server is cached
+        long cacheStart = System.currentTimeMillis();
+        if (cacheEnabled) {
+            Optional<CachedMinecraftServer> cached = serverCacheRepository.findById(target.cacheKey());
+            if (cached.isPresent()) {
+                CachedMinecraftServer server = cached.get();
+                log.debug("Got server {}:{} from cache in {}ms", target.hostname(), target.port(), System.currentTimeMillis() - cacheStart);
+                server.setCached(true);
+                MetricService.getMetric(ServerLookupMetric.class).recordHit();
+                countRequest(target);
+                return server;
+            }
+        }
+
+        long pingStart = System.currentTimeMillis();
+        CachedMinecraftServer cachedServer = pingServer(target);
+        MetricService.getMetric(ServerLookupMetric.class).recordMiss(System.currentTimeMillis() - pingStart);
+        countRequest(target); // Only servers that answered, so lookups can't point the crawler anywhere
+        return cachedServer;
+    }
+
+    /**
+     * Parses and validates the platform and hostname of a server lookup.
+     *
+     * @param platformName the name of the platform
+     * @param hostname     the hostname of the server, optionally with a port
+     * @return the server to look up
+     */
+    public ServerTarget parseTarget(String platformName, String hostname) {
         if (IP_VALIDATOR.isValid(hostname)) {
             // Check if the IP is allowed to be pinged.
             this.checkSubnet(hostname);
@@ -99,56 +140,52 @@ public class ServerService {
                 throw new BadRequestException("Invalid port: '%s'".formatted(parts[1]));
             }
         }
-        String key = "%s-%s-%s".formatted(platformName, hostname, port);
-        log.debug("Getting server: {}:{}", hostname, port);
-
-        // Check if the server is cached
-        long cacheStart = System.currentTimeMillis();
-        if (cacheEnabled) {
-            Optional<CachedMinecraftServer> cached = serverCacheRepository.findById(key);
-            if (cached.isPresent()) {
-                CachedMinecraftServer server = cached.get();
-                log.debug("Got server {}:{} from cache in {}ms", hostname, port, System.currentTimeMillis() - cacheStart);
-                server.setCached(true);
-                MetricService.getMetric(ServerLookupMetric.class).recordHit();
-                return server;
-            }
-        }
+        return new ServerTarget(platform, hostname, port);
+    }
 
+    /**
+     * Pings a server and caches the result, without checking the cache first.
+     *
+     * @param target the server to ping
+     * @return the server
+     */
+    public CachedMinecraftServer pingServer(ServerTarget target) {
+        Platform platform = target.platform();
+        ResolvedServer resolved = resolve(target);
+        String hostname = resolved.hostname();
+        int port = resolved.port();
         List<DNSRecord> dnsRecords = new ArrayList<>();
-
-        SRVRecord srvRecord = platform == Platform.JAVA ? dnsService.resolveSRV(hostname) : null; // Resolve the SRV record
-        if (srvRecord != null) { // SRV was resolved, use the hostname and port
-            dnsRecords.add(srvRecord); // Going to need this for later
-            InetSocketAddress socketAddress = srvRecord.getSocketAddress();
-            hostname = socketAddress.getHostName();
-            port = socketAddress.getPort();
+        if (resolved.srvRecord() != null) {
+            dnsRecords.add(resolved.srvRecord()); // Going to need this for later
         }
-
-        ARecord aRecord = dnsService.resolveA(hostname); // Resolve the A record so we can get the IPv4 address
-        String ip = aRecord == null ? null : aRecord.getAddress(); // Get the IP address
-        if (ip != null) { // Was the IP resolved?
-            dnsRecords.add(aRecord); // Going to need this for later
-            log.debug("Resolved hostname: {} -> {}", hostname, ip);
+        List<String> addresses = new ArrayList<>();
+        for (DNSRecord addressRecord : resolved.addressRecords()) {
+            String address = DNSService.getAddress(addressRecord);
+            if (address != null) { // Was the IP resolved?
+                dnsRecords.add(addressRecord); // Going to need this for later
+                addresses.add(address);
+            }
         }
+        log.debug("Resolved hostname: {} -> {}", hostname, addresses);
 
-        if (ip == null) {
+        if (addresses.isEmpty()) {
             throw new BadRequestException("Hostname returned an invalid ip: '%s'".formatted(hostname));
         }
 
-        // Check if the IP is allowed to be pinged.
-        if (IP_VALIDATOR.isValid(ip)) {
-            this.checkSubnet(ip);
+        // Check if the IPs are allowed to be pinged, any one of them could be the one that answers
+        for (String address : addresses) {
+            if (IP_VALIDATOR.isValid(address)) {
+                this.checkSubnet(address);
+            }
         }
 
         long pingStart = System.currentTimeMillis();
-        CachedMinecraftServer cachedServer = new CachedMinecraftServer(key, platform.getPinger().ping(hostname, ip, port, dnsRecords.toArray(new DNSRecord[0]), platform == Platform.JAVA ? javaPingerTimeout : bedrockPingerTimeout));
+        CachedMinecraftServer cachedServer = new CachedMinecraftServer(target.cacheKey(), platform.getPinger().ping(hostname, addresses, port, dnsRecords.toArray(new DNSRecord[0]), platform == Platform.JAVA ? javaPingerTimeout : bedrockPingerTimeout));
         long pingDurationMs = System.currentTimeMillis() - pingStart;
-        log.debug("Successfully pinged server: {}:{} in {}ms", hostname, port, pingDurationMs);
-        MetricService.getMetric(ServerLookupMetric.class).recordMiss(pingDurationMs);
+        log.debug("Successfully pinged server: {}:{} ({}) in {}ms", hostname, port, cachedServer.getServer().getIp(), pingDurationMs);
 
-        // Populate the server's ip lookup data
-        IpLookup ipLookup = maxMindService.lookupIp(ip);
+        // Populate the server's ip lookup data, for the address that answered
+        IpLookup ipLookup = maxMindService.lookupIp(cachedServer.getServer().getIp());
         cachedServer.getServer().setLocation(ipLookup.location());
         cachedServer.getServer().setAsn(ipLookup.asn());
 
@@ -160,6 +197,13 @@ public class ServerService {
             ((JavaMinecraftServer) cachedServer.getServer()).setMojangBlocked(mojangService.isServerBlocked(hostname));
         }
 
+        MinecraftServer server = cachedServer.getServer();
+        if (server.getLatency() != null) {
+            MetricService.getMetric(ServerLatencyMetric.class).record(platform.name().toLowerCase(),
+                    server.getRegistryEntry() == null ? null : server.getRegistryEntry().serverId(), server.getLatency());
+        }
+        serverHistoryService.record(target.cacheKey(), server);
+
         if (cacheEnabled) {
             String finalHostname = hostname;
             CompletableFuture.runAsync(() -> this.serverCacheRepository.save(cachedServer), Main.EXECUTOR).exceptionally(ex -> {
@@ -170,6 +214,58 @@ public class ServerService {
         return cachedServer;
     }
 
+    /**
+     * Resolves the address to ping a server at.
+     * <p>
+     * For Java servers the SRV lookup and the address lookups of the hostname start together: most
+     * hostnames have no SRV record, so the addresses are usually known as soon as the SRV answer is.
+     * When there is an SRV record, the address lookups of its target start as soon as it arrives.
+     *
+     * @param target the server to resolve
+     * @return the hostname and port to ping, with the records they were resolved from
+     */
+    private ResolvedServer resolve(ServerTarget target) {
+        String hostname = target.hostname();
+        CompletableFuture<List<DNSRecord>> hostnameLookup = dnsService.resolveAddressesAsync(hostname);
+        if (target.platform() != Platform.JAVA) {
+            return new ResolvedServer(hostname, target.port(), null, hostnameLookup.join());
+        }
+        return dnsService.resolveSRVAsync(hostname).thenCompose(srvRecord -> {
+            if (srvRecord == null) {
+                return hostnameLookup.thenApply(addressRecords -> new ResolvedServer(hostname, target.port(), null, addressRecords));
+            }
+            // The speculative lookup was wasted, unless the SRV record points back at the hostname
+            CompletableFuture<List<DNSRecord>> targetLookup = srvRecord.getTarget().equalsIgnoreCase(hostname) ? hostnameLookup : dnsService.resolveAddressesAsync(srvRecord.getTarget());
+            return targetLookup.thenApply(addressRecords -> new ResolvedServer(srvRecord.getTarget(), srvRecord.getPort(), srvRecord, addressRecords));
+        }).join();
+    }
+
+    /**
+     * Counts a lookup of a server towards its popularity.
+     *
+     * @param target the server looked up
+     */
+    private void countRequest(ServerTarget target) {
+        requestedServers.get(target.cacheKey(), key -> new RequestedServer(target)).count().increment();
+    }
+
+    /**
+     * Gets how often each server was looked up on this node since the last call, and resets the counts.
+     *
+     * @return the lookups by server
+     */
+    public Map<ServerTarget, Long> takeRequestCounts() {
+        Map<ServerTarget, Long> counts = new HashMap<>();
+        requestedServers.asMap().values().removeIf(requested -> {
+            long count = requested.count().sumThenReset();
+            if (count > 0) {
+                counts.merge(requested.target(), count, Long::sum);
+            }
+            return count == 0; // Not looked up since the last call
+        });
+        return counts;
+    }
+
     /**
      * Gets the server favicon.
      *
@@ -243,53 +339,46 @@ public class ServerService {
      * @param ip the ip to check
      */
     private void checkSubnet(String ip) {
-        InetAddress address;
+        boolean blacklisted;
         try {
-            address = InetAddresses.forString(ip);
-        } catch (Exception e) {
+            blacklisted = this.blacklistedSubnets.contains(ip);
+        } catch (IllegalArgumentException e) {
             throw new BadRequestException("Invalid IP address");
         }
-
-        for (String cidr : this.blacklistedSubnets) {
-            if (isInSubnet(address, cidr.strip())) {
-                throw new BadRequestException("IP address is in a blacklisted subnet");
-            }
+        if (blacklisted) {
+            throw new BadRequestException("IP address is in a blacklisted subnet");
         }
     }
 
     /**
-     * Checks if the given address is inside the subnet.
+     * Where a server was resolved to.
      *
-     * @param address the address to check
-     * @param cidr    the subnet to check
-     * @return if the given address is inside the subnet
+     * @param hostname       the hostname to ping, the SRV target if there is one
+     * @param port           the port to ping
+     * @param srvRecord      the SRV record, null if none
+     * @param addressRecords the A and AAAA records of the hostname, in the order to try them
      */
-    private boolean isInSubnet(InetAddress address, String cidr) {
-        String[] parts = cidr.split("/");
-        InetAddress subnet = InetAddresses.forString(parts[0]);
-        int prefixLength = Integer.parseInt(parts[1]);
-
-        if (address.getClass() != subnet.getClass()) {
-            return false;
-        }
+    private record ResolvedServer(String hostname, int port, SRVRecord srvRecord, List<DNSRecord> addressRecords) {}
 
-        byte[] addressBytes = address.getAddress();
-        byte[] subnetBytes = subnet.getAddress();
-
-        int fullBytes = prefixLength / 8;
-        int remainingBits = prefixLength % 8;
-
-        for (int i = 0; i < fullBytes; i++) {
-            if (addressBytes[i] != subnetBytes[i]) {
-                return false;
-            }
+    /**
+     * A server to look up.
+     *
+     * @param platform the platform of the server
+     * @param hostname the hostname of the server
+     * @param port     the port of the server
+     */
+    public record ServerTarget(Platform platform, String hostname, int port) {
+        /**
+         * Gets the key of this server in the server cache.
+         */
+        public String cacheKey() {
+            return "%s-%s-%s".formatted(platform.name().toLowerCase(), hostname, port);
         }
+    }
 
-        if (remainingBits > 0) {
-            int mask = 0xFF00 >> remainingBits;
-            return (addressBytes[fullBytes] & mask) == (subnetBytes[fullBytes] & mask);
+    private record RequestedServer(ServerTarget target, LongAdder count) {
+        RequestedServer(ServerTarget target) {
+            this(target, new LongAdder());
         }
-
-        return true;
     }
 }
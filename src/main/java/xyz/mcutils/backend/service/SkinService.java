@@ -5,6 +5,8 @@ import com.google.common.cache.CacheBuilder;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.PageRequest;
@@ -14,6 +16,7 @@ import org.springframework.http.MediaType;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.support.TransactionTemplate;
 import xyz.mcutils.backend.Main;
 import xyz.mcutils.backend.common.*;
@@ -31,9 +34,7 @@ import xyz.mcutils.backend.repository.postgres.SkinRepository;
 
 import java.awt.image.BufferedImage;
 import java.time.Instant;
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
 
 @Service
@@ -41,6 +42,7 @@ import java.util.concurrent.TimeUnit;
 public class SkinService {
     public static final String DEFAULT_SKIN = "31f477eb1a7beee631c2ca64d06f8f68fa93a3386d04452ab27f43acdf1b60cb"; // Steve
     public static final int SKINS_PER_PAGE = 25;
+    public static final String SKIN_BY_TEXTURE_ID_CACHE = "skinByTextureId";
     public static SkinService INSTANCE;
 
     private final SkinRepository skinRepository;
@@ -52,7 +54,9 @@ public class SkinService {
     private final CoalescingLoader<String, byte[]> textureLoader = new CoalescingLoader<>(Main.EXECUTOR);
     private final CoalescingLoader<String, SkinRow> skinCreationLoader = new CoalescingLoader<>(Runnable::run);
     private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate bulkTransactionTemplate;
     private final LegacySkinCheckService legacySkinCheckService;
+    private final CacheManager cacheManager;
 
     @Value("${mc-utils.renderer.skin.cache}")
     private boolean cacheEnabled;
@@ -69,14 +73,18 @@ public class SkinService {
     public SkinService(SkinRepository skinRepository, PlayerRepository playerRepository,
                        StorageService storageService, WebRequest webRequest, StatisticsService statisticsService,
                        PlatformTransactionManager transactionManager,
-                       @Lazy LegacySkinCheckService legacySkinCheckService) {
+                       @Lazy LegacySkinCheckService legacySkinCheckService, CacheManager cacheManager) {
         this.skinRepository = skinRepository;
         this.playerRepository = playerRepository;
         this.storageService = storageService;
         this.webRequest = webRequest;
         this.statisticsService = statisticsService;
         this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Own transaction so rows are committed before they are put in the texture cache
+        this.bulkTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.bulkTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
         this.legacySkinCheckService = legacySkinCheckService;
+        this.cacheManager = cacheManager;
     }
 
     @PostConstruct
@@ -147,7 +155,7 @@ public class SkinService {
      * Cached variant of {@link #getOrCreateSkin(SkinTextureToken, UUID)}.
      * Cache key is the texture ID only; {@code playerId} is only relevant on first insert.
      */
-    @Cacheable(value = "skinByTextureId", key = "#token.textureId")
+    @Cacheable(value = SKIN_BY_TEXTURE_ID_CACHE, key = "#token.textureId")
     public SkinRow getOrCreateSkinCached(SkinTextureToken token, UUID playerId) {
         return getOrCreateSkin(token, playerId);
     }
@@ -171,6 +179,65 @@ public class SkinService {
         }));
     }
 
+    /**
+     * Bulk variant of {@link #getOrCreateSkin(SkinTextureToken, UUID)} for submit and refresh batches.
+     * Textures already in the {@value #SKIN_BY_TEXTURE_ID_CACHE} cache are served from it; the rest are resolved
+     * with one {@code INSERT ... ON CONFLICT DO NOTHING RETURNING} and one {@code SELECT ... = ANY(?)}.
+     *
+     * @param tokens the skin tokens, each paired with the player first seen using it (only used on first insert)
+     * @return the skin rows keyed by texture id
+     */
+    public Map<String, SkinRow> getOrCreateSkins(Collection<Tuple<SkinTextureToken, UUID>> tokens) {
+        org.springframework.cache.Cache cache = this.cacheManager.getCache(SKIN_BY_TEXTURE_ID_CACHE);
+        Map<String, SkinRow> result = new HashMap<>();
+        TreeMap<String, Tuple<SkinTextureToken, UUID>> missing = new TreeMap<>(); // Sorted so concurrent batches lock in the same order
+        for (Tuple<SkinTextureToken, UUID> token : tokens) {
+            String textureId = token.left().getTextureId();
+            if (textureId == null || result.containsKey(textureId) || missing.containsKey(textureId)) {
+                continue;
+            }
+            ValueWrapper cached = cache != null ? cache.get(textureId) : null;
+            if (cached != null && cached.get() instanceof SkinRow row) {
+                result.put(textureId, row);
+            } else {
+                missing.put(textureId, token);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        String[] textureIds = missing.keySet().toArray(new String[0]);
+        String[] models = new String[textureIds.length];
+        UUID[] playerIds = new UUID[textureIds.length];
+        int i = 0;
+        for (Tuple<SkinTextureToken, UUID> token : missing.values()) {
+            SkinTextureToken.Metadata metadata = token.left().metadata();
+            models[i] = (metadata == null ? Skin.Model.DEFAULT : Skin.Model.valueOf(metadata.model().toUpperCase())).name();
+            playerIds[i] = token.right();
+            i++;
+        }
+
+        Tuple<List<String>, List<SkinRow>> resolved = this.bulkTransactionTemplate.execute(_ -> new Tuple<>(
+                this.skinRepository.insertMissing(textureIds, models, playerIds, Instant.now()),
+                this.skinRepository.findAllByTextureIds(textureIds)
+        ));
+        assert resolved != null;
+        for (SkinRow row : resolved.right()) {
+            result.put(row.getTextureId(), row);
+            if (cache != null) {
+                cache.put(row.getTextureId(), row);
+            }
+        }
+
+        List<String> inserted = resolved.left();
+        if (!inserted.isEmpty()) {
+            StatisticsService.addTrackedSkinCount(inserted.size());
+            this.legacySkinCheckService.enqueue(inserted);
+        }
+        return result;
+    }
+
     public Pagination.Page<Skin> getPaginatedSkins(int page, SkinLookupSort sort) {
         Sort pageSort = Sort.by(Sort.Direction.DESC, sort.getFieldName()).and(Sort.by(Sort.Direction.ASC, "id"));
         Pageable pageable = PageRequest.of(page - 1, SKINS_PER_PAGE, pageSort);
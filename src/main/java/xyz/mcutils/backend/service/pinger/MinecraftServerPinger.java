@@ -3,10 +3,22 @@ package xyz.mcutils.backend.service.pinger;
 import xyz.mcutils.backend.model.domain.dns.DNSRecord;
 import xyz.mcutils.backend.model.domain.server.MinecraftServer;
 
+import java.util.List;
+
 /**
  * @param <T> the type of server to ping
  * @author Braydon
  */
 public interface MinecraftServerPinger<T extends MinecraftServer> {
-    T ping(String hostname, String ip, int port, DNSRecord[] records, int timeout);
-}
\ No newline at end of file
+    /**
+     * Ping a server.
+     *
+     * @param hostname  the hostname of the server
+     * @param addresses the resolved addresses of the server, in the order to try them, empty to resolve the hostname
+     * @param port      the port of the server
+     * @param records   the DNS records of the server
+     * @param timeout   the timeout in milliseconds
+     * @return the server, with the address that answered as its ip
+     */
+    T ping(String hostname, List<String> addresses, int port, DNSRecord[] records, int timeout);
+}
@@ -1,6 +1,9 @@
 package xyz.mcutils.backend.service.pinger.impl;
 
 import lombok.extern.slf4j.Slf4j;
+import xyz.mcutils.backend.Main;
+import xyz.mcutils.backend.common.net.SelectorLoop;
+import xyz.mcutils.backend.common.net.TimerWheel;
 import xyz.mcutils.backend.common.packet.impl.bedrock.BedrockPacketUnconnectedPing;
 import xyz.mcutils.backend.common.packet.impl.bedrock.BedrockPacketUnconnectedPong;
 import xyz.mcutils.backend.exception.impl.BadRequestException;
@@ -9,19 +12,47 @@ import xyz.mcutils.backend.model.domain.server.bedrock.BedrockMinecraftServer;
 import xyz.mcutils.backend.service.pinger.MinecraftServerPinger;
 
 import java.io.IOException;
-import java.net.DatagramSocket;
+import java.io.UncheckedIOException;
 import java.net.InetSocketAddress;
-import java.net.SocketTimeoutException;
-import java.net.UnknownHostException;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The {@link MinecraftServerPinger} for pinging
  * {@link BedrockMinecraftServer} over UDP.
+ * <p>
+ * Every ping goes out over one shared {@link DatagramChannel} on a {@link SelectorLoop}. The time
+ * field of each unconnected ping carries a unique id, servers echo it back in their pong, which
+ * is how pongs are matched to their pings. Timeouts run on the loop's timer wheel.
  *
  * @author Braydon
  */
 @Slf4j
 public final class BedrockMinecraftServerPinger implements MinecraftServerPinger<BedrockMinecraftServer> {
+    /**
+     * Large enough for any datagram.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * The socket's receive buffer, pongs to a burst of pings arrive together and
+     * the default buffer drops most of them. The kernel may cap it lower.
+     */
+    private static final int RECEIVE_BUFFER_SIZE = 4 * 1024 * 1024;
+
+    private volatile PingChannel channel;
+
     /**
      * Ping the server with the given hostname and port.
      *
@@ -30,40 +61,216 @@ public final class BedrockMinecraftServerPinger implements MinecraftServerPinger
      * @return the server that was pinged
      */
     @Override
-    public BedrockMinecraftServer ping(String hostname, String ip, int port, DNSRecord[] records, int timeout) {
+    public BedrockMinecraftServer ping(String hostname, List<String> addresses, int port, DNSRecord[] records, int timeout) {
+        try {
+            return pingAsync(hostname, addresses, port, records, timeout).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Ping the server with the given hostname and port without blocking.
+     *
+     * @param hostname  the hostname of the server
+     * @param addresses the resolved addresses of the server, only the first is pinged, empty to resolve the hostname
+     * @param port      the port of the server
+     * @param records   the DNS records of the server
+     * @param timeout   the time to wait for the pong, in milliseconds
+     * @return the server that was pinged, or a {@link BadRequestException} if it could not be
+     */
+    public CompletableFuture<BedrockMinecraftServer> pingAsync(String hostname, List<String> addresses, int port, DNSRecord[] records, int timeout) {
         log.debug("Pinging {}:{}...", hostname, port);
-        long before = System.currentTimeMillis(); // Timestamp before pinging
+        String ip = addresses.isEmpty() ? null : addresses.getFirst();
+        InetSocketAddress address = new InetSocketAddress(ip != null ? ip : hostname, port);
+        if (address.isUnresolved()) {
+            return CompletableFuture.failedFuture(new BadRequestException("Unknown hostname '%s'".formatted(hostname)));
+        }
+        PingChannel channel;
+        try {
+            channel = channel();
+        } catch (IOException ex) {
+            return CompletableFuture.failedFuture(new UncheckedIOException("Failed to start the pinger", ex));
+        }
+        PendingPing ping = new PendingPing(hostname, address, timeout);
+        channel.loop.execute(() -> channel.send(ping));
+
+        // Parse off the loop, it only matches pongs to pings
+        return ping.pong.thenApplyAsync(pong -> {
+            BedrockMinecraftServer server;
+            try {
+                server = BedrockMinecraftServer.create(hostname, address.getAddress().getHostAddress(), port, records, pong.response());
+            } catch (RuntimeException ex) {
+                throw new BadRequestException("Server '%s' returned an invalid status".formatted(hostname));
+            }
+            server.setLatency(TimeUnit.NANOSECONDS.toMillis(pong.latencyNanos()));
+            log.debug("Pinged {}:{} in {}ms", hostname, port, server.getLatency());
+            return server;
+        }, Main.EXECUTOR);
+    }
+
+    private PingChannel channel() throws IOException {
+        PingChannel channel = this.channel;
+        if (channel == null) {
+            synchronized (this) {
+                channel = this.channel;
+                if (channel == null) {
+                    channel = new PingChannel(new SelectorLoop("bedrock-pinger", BUFFER_SIZE));
+                    this.channel = channel;
+                }
+            }
+        }
+        return channel;
+    }
+
+    /**
+     * @param response     the status string of the pong
+     * @param latencyNanos the time from the ping to its pong
+     */
+    private record Pong(String response, long latencyNanos) {}
 
-        // Open a socket connection to the server
-        try (DatagramSocket socket = new DatagramSocket()) {
-            socket.setSoTimeout(timeout);
-            socket.connect(new InetSocketAddress(hostname, port));
+    /**
+     * A ping waiting for its pong.
+     */
+    private static final class PendingPing {
+        private final String hostname;
+        private final InetSocketAddress address;
+        private final int timeout;
+        private final CompletableFuture<Pong> pong = new CompletableFuture<>();
 
-            long ping = System.currentTimeMillis() - before; // Calculate the ping
-            log.debug("Pinged {}:{} in {}ms", hostname, port, ping);
+        private long id;
+        private long sentNanos;
+        private TimerWheel.Timeout timeoutTask;
 
-            // Send the unconnected ping packet
-            new BedrockPacketUnconnectedPing().process(socket);
+        private PendingPing(String hostname, InetSocketAddress address, int timeout) {
+            this.hostname = hostname;
+            this.address = address;
+            this.timeout = timeout;
+        }
+    }
 
-            // Handle the received unconnected pong packet
-            BedrockPacketUnconnectedPong unconnectedPong = new BedrockPacketUnconnectedPong();
-            unconnectedPong.process(socket);
-            String response = unconnectedPong.getResponse();
-            if (response == null) { // No pong response
-                throw new BadRequestException("Server '%s' did not respond to ping".formatted(hostname));
+    /**
+     * The shared channel and the pings in flight on it, only touched on its loop.
+     */
+    private static final class PingChannel implements SelectorLoop.Handler {
+        private final SelectorLoop loop;
+        private final DatagramChannel channel;
+        private final SelectionKey key;
+        private final long clientGuid = ThreadLocalRandom.current().nextLong();
+        private final Map<Long, PendingPing> inFlight = new HashMap<>();
+
+        /**
+         * Pings the socket had no room for, sent when it is writable again.
+         */
+        private final Queue<PendingPing> unsent = new ArrayDeque<>();
+        private long nextId = ThreadLocalRandom.current().nextLong();
+
+        private PingChannel(SelectorLoop loop) throws IOException {
+            this.loop = loop;
+            this.channel = DatagramChannel.open();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, RECEIVE_BUFFER_SIZE);
+            channel.bind(null);
+
+            // Channels are registered on the loop thread
+            CompletableFuture<SelectionKey> registered = new CompletableFuture<>();
+            loop.execute(() -> {
+                try {
+                    registered.complete(loop.register(channel, SelectionKey.OP_READ, this));
+                } catch (IOException ex) {
+                    registered.completeExceptionally(ex);
+                }
+            });
+            try {
+                this.key = registered.join();
+            } catch (CompletionException ex) {
+                throw new IOException("Failed to register the ping channel", ex.getCause());
             }
-            return BedrockMinecraftServer.create(hostname, ip, port, records, response); // Return the server
-        } catch (IOException ex) {
-            if (ex instanceof UnknownHostException) {
-                throw new BadRequestException("Unknown hostname '%s'".formatted(hostname));
+        }
+
+        private void send(PendingPing ping) {
+            ping.id = nextId++;
+            inFlight.put(ping.id, ping);
+            ping.timeoutTask = loop.getTimers().schedule(ping.timeout, () -> timedOut(ping));
+            if (!unsent.isEmpty() || !trySend(ping)) {
+                unsent.add(ping);
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
             }
-            else if (ex instanceof SocketTimeoutException) {
-                throw new BadRequestException("Server '%s' did not respond to ping".formatted(hostname));
+        }
+
+        /**
+         * @return whether the ping was sent, or failed, rather than left for later
+         */
+        private boolean trySend(PendingPing ping) {
+            ByteBuffer buffer = loop.getBuffer().clear();
+            new BedrockPacketUnconnectedPing(ping.id, clientGuid).write(buffer);
+            buffer.flip();
+            try {
+                ping.sentNanos = System.nanoTime();
+                return channel.send(buffer, ping.address) > 0;
+            } catch (IOException ex) {
+                complete(ping);
+                ping.pong.completeExceptionally(new BadRequestException("An error occurred pinging '%s:%s': %s".formatted(ping.hostname, ping.address.getPort(), ex.getLocalizedMessage())));
+                return true;
+            }
+        }
+
+        @Override
+        public void onReady(SelectionKey key) {
+            if (key.isWritable()) {
+                PendingPing ping;
+                while ((ping = unsent.peek()) != null && trySend(ping)) {
+                    unsent.poll();
+                }
+                if (unsent.isEmpty()) {
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+            }
+            if (key.isReadable()) {
+                receive();
             }
-            else {
-                log.debug("An error occurred pinging {}:{}:", hostname, port, ex);
-                throw new BadRequestException("An error occurred pinging '%s:%s'".formatted(hostname, port));
+        }
+
+        private void receive() {
+            ByteBuffer buffer = loop.getBuffer();
+            while (true) {
+                SocketAddress sender;
+                try {
+                    sender = channel.receive(buffer.clear());
+                } catch (IOException ex) {
+                    log.debug("Failed to receive a pong: {}", ex.getMessage());
+                    return;
+                }
+                if (sender == null) {
+                    return;
+                }
+                long receivedNanos = System.nanoTime();
+                BedrockPacketUnconnectedPong pong = new BedrockPacketUnconnectedPong();
+                if (!pong.read(buffer.flip())) {
+                    continue;
+                }
+                // Only the server the ping went to can answer it
+                PendingPing ping = inFlight.get(pong.getTime());
+                if (ping == null || !ping.address.equals(sender)) {
+                    continue;
+                }
+                complete(ping);
+                ping.pong.complete(new Pong(pong.getResponse(), receivedNanos - ping.sentNanos));
             }
         }
+
+        private void timedOut(PendingPing ping) {
+            inFlight.remove(ping.id);
+            unsent.remove(ping);
+            ping.pong.completeExceptionally(new BadRequestException("Server '%s' did not respond to ping".formatted(ping.hostname)));
+        }
+
+        private void complete(PendingPing ping) {
+            inFlight.remove(ping.id);
+            ping.timeoutTask.cancel();
+        }
     }
-}
\ No newline at end of file
+}
@@ -2,8 +2,12 @@ package xyz.mcutils.backend.service.pinger.impl;
 
 import lombok.extern.slf4j.Slf4j;
 import xyz.mcutils.backend.Constants;
+import xyz.mcutils.backend.Main;
 import xyz.mcutils.backend.common.JavaMinecraftVersion;
+import xyz.mcutils.backend.common.net.SelectorLoop;
+import xyz.mcutils.backend.common.net.TimerWheel;
 import xyz.mcutils.backend.common.packet.impl.java.JavaPacketHandshakingInSetProtocol;
+import xyz.mcutils.backend.common.packet.impl.java.JavaPacketStatusInPing;
 import xyz.mcutils.backend.common.packet.impl.java.JavaPacketStatusInStart;
 import xyz.mcutils.backend.exception.impl.BadRequestException;
 import xyz.mcutils.backend.model.domain.dns.DNSRecord;
@@ -11,16 +15,54 @@ import xyz.mcutils.backend.model.domain.server.java.JavaMinecraftServer;
 import xyz.mcutils.backend.model.token.server.JavaServerStatusToken;
 import xyz.mcutils.backend.service.pinger.MinecraftServerPinger;
 
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
-import java.net.*;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * The {@link MinecraftServerPinger} for pinging
+ * {@link JavaMinecraftServer}s over TCP.
+ * <p>
+ * Pings run on a few {@link SelectorLoop}s instead of a thread each: every ping is a non-blocking
+ * {@link SocketChannel} stepping through connect, handshake and status request, the status
+ * response, then a ping and its pong, with its timeout on the loop's timer wheel. The time from
+ * the ping to the pong is the server's latency.
+ * <p>
+ * Servers with several addresses are connected to Happy Eyeballs style (RFC 8305): the next
+ * address is tried when the last attempt fails, or has not connected within
+ * {@value #CONNECTION_ATTEMPT_DELAY_MILLIS}ms, and the first connection wins. A dead address
+ * only costs that delay instead of the whole timeout.
+ *
  * @author Braydon
  */
 @Slf4j
 public final class JavaMinecraftServerPinger implements MinecraftServerPinger<JavaMinecraftServer> {
+    private static final int LOOPS = Math.clamp(Runtime.getRuntime().availableProcessors() / 2, 1, 4);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * The largest frame length, the protocol caps the length prefix at 3 bytes.
+     */
+    private static final int MAX_FRAME_LENGTH = (1 << 21) - 1;
+    private static final int MAX_FRAME_LENGTH_BYTES = 3;
+    /**
+     * How long an attempt gets to connect before the next address is tried too, RFC 8305's recommendation.
+     */
+    private static final long CONNECTION_ATTEMPT_DELAY_MILLIS = 250;
+
+    private final AtomicInteger nextLoop = new AtomicInteger();
+    private volatile SelectorLoop[] loops;
+
     /**
      * Ping the server with the given hostname and port.
      *
@@ -29,40 +71,370 @@ public final class JavaMinecraftServerPinger implements MinecraftServerPinger<Ja
      * @return the server that was pinged
      */
     @Override
-    public JavaMinecraftServer ping(String hostname, String ip, int port, DNSRecord[] records, int timeout) {
+    public JavaMinecraftServer ping(String hostname, List<String> addresses, int port, DNSRecord[] records, int timeout) {
+        try {
+            return pingAsync(hostname, addresses, port, records, timeout).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Ping the server with the given hostname and port without blocking.
+     *
+     * @param hostname  the hostname of the server
+     * @param addresses the resolved addresses of the server, in the order to try them, empty to resolve the hostname
+     * @param port      the port of the server
+     * @param records   the DNS records of the server
+     * @param timeout   the connect timeout, and then the response timeout, in milliseconds
+     * @return the server that was pinged, or a {@link BadRequestException} if it could not be
+     */
+    public CompletableFuture<JavaMinecraftServer> pingAsync(String hostname, List<String> addresses, int port, DNSRecord[] records, int timeout) {
         log.debug("Pinging {}:{}...", hostname, port);
+        List<InetSocketAddress> socketAddresses = new ArrayList<>(Math.max(addresses.size(), 1));
+        for (String address : addresses.isEmpty() ? List.of(hostname) : addresses) {
+            InetSocketAddress socketAddress = new InetSocketAddress(address, port);
+            if (socketAddress.isUnresolved()) {
+                return CompletableFuture.failedFuture(new BadRequestException("Unknown hostname '%s'".formatted(hostname)));
+            }
+            socketAddresses.add(socketAddress);
+        }
+        SelectorLoop loop;
+        try {
+            loop = nextLoop();
+        } catch (IOException ex) {
+            return CompletableFuture.failedFuture(new UncheckedIOException("Failed to start the pinger", ex));
+        }
+        StatusExchange exchange = new StatusExchange(loop, hostname, port, timeout, socketAddresses);
+        loop.execute(exchange::start);
+
+        // Parse off the loop, a large status would hold up every other ping on it
+        return exchange.response.thenApplyAsync(response -> {
+            JavaServerStatusToken token = Constants.GSON.fromJson(response.json(), JavaServerStatusToken.class);
+            JavaMinecraftServer server = JavaMinecraftServer.create(hostname, response.address().getAddress().getHostAddress(), port, records, token);
+            if (response.latencyNanos() != null) {
+                server.setLatency(TimeUnit.NANOSECONDS.toMillis(response.latencyNanos()));
+            }
+            return server;
+        }, Main.EXECUTOR);
+    }
+
+    private SelectorLoop nextLoop() throws IOException {
+        SelectorLoop[] loops = this.loops;
+        if (loops == null) {
+            synchronized (this) {
+                loops = this.loops;
+                if (loops == null) {
+                    loops = new SelectorLoop[LOOPS];
+                    for (int i = 0; i < loops.length; i++) {
+                        loops[i] = new SelectorLoop("java-pinger-" + i, BUFFER_SIZE);
+                    }
+                    this.loops = loops;
+                }
+            }
+        }
+        return loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)];
+    }
 
-        // Open a socket connection to the server
-        try (Socket socket = new Socket()) {
-            socket.setTcpNoDelay(true);
-            socket.connect(new InetSocketAddress(hostname, port), timeout);
-            socket.setSoTimeout(timeout);
+    /**
+     * @param address      the address that answered
+     * @param json         the status response
+     * @param latencyNanos the time from the ping to its pong, or null if the server never answered it
+     */
+    private record StatusResponse(InetSocketAddress address, String json, Long latencyNanos) {}
 
-            // Open data streams to begin packet transaction
-            try (DataInputStream inputStream = new DataInputStream(socket.getInputStream()); DataOutputStream outputStream = new DataOutputStream(socket.getOutputStream())) {
-                // Send the handshake packet
-                JavaPacketHandshakingInSetProtocol handshakePacket = new JavaPacketHandshakingInSetProtocol(hostname, port, JavaMinecraftVersion.getLatestVersion().getProtocol());
-                handshakePacket.process(inputStream, outputStream);
-                outputStream.flush();
+    /**
+     * One status ping, driven by its loop: connect to whichever address answers first, write the
+     * handshake and status request, read the response, then write a ping and read its pong. Every
+     * packet is read as its length prefix, then the rest of the frame.
+     */
+    private static final class StatusExchange implements SelectorLoop.Handler {
+        private final SelectorLoop loop;
+        private final String hostname;
+        private final int port;
+        private final int timeout;
+        private final List<InetSocketAddress> addresses;
+        private final CompletableFuture<StatusResponse> response = new CompletableFuture<>();
+
+        /**
+         * The connections still racing to connect.
+         */
+        private final List<ConnectAttempt> attempts = new ArrayList<>();
+        private int nextAddress;
+        private TimerWheel.Timeout nextAttemptTask;
 
-                // Send the status request and await the response
-                JavaPacketStatusInStart packetStatusInStart = new JavaPacketStatusInStart();
-                packetStatusInStart.process(inputStream, outputStream);
-                outputStream.flush();
+        private SocketChannel channel;
+        private InetSocketAddress address;
+        private TimerWheel.Timeout timeoutTask;
+        private ByteBuffer pendingWrite;
+        private int frameLength;
+        private int frameLengthBytes;
+        private byte[] frame;
+        private int framePosition;
+        private String status;
+        private JavaPacketStatusInPing ping;
+        private long pingSentNanos;
 
-                JavaServerStatusToken token = Constants.GSON.fromJson(packetStatusInStart.getResponse(), JavaServerStatusToken.class);
-                return JavaMinecraftServer.create(hostname, ip, port, records, token);
+        private StatusExchange(SelectorLoop loop, String hostname, int port, int timeout, List<InetSocketAddress> addresses) {
+            this.loop = loop;
+            this.hostname = hostname;
+            this.port = port;
+            this.timeout = timeout;
+            this.addresses = addresses;
+        }
+
+        private void start() {
+            timeoutTask = loop.getTimers().schedule(timeout, this::timedOut);
+            attemptNext();
+        }
+
+        /**
+         * Starts connecting to the next address, and schedules the one after
+         * in case this attempt neither connects nor fails in time.
+         */
+        private void attemptNext() {
+            // A timeout due on the same tick may have finished the exchange before this ran
+            if (response.isDone()) {
+                return;
             }
-        } catch (IOException ex) {
-            if (ex instanceof UnknownHostException) {
-                throw new BadRequestException("Unknown hostname '%s'".formatted(hostname));
+            if (nextAttemptTask != null) {
+                nextAttemptTask.cancel();
+                nextAttemptTask = null;
+            }
+            if (nextAddress >= addresses.size()) {
+                return;
+            }
+            ConnectAttempt attempt = new ConnectAttempt(addresses.get(nextAddress++));
+            boolean connected;
+            SelectionKey key;
+            try {
+                attempt.channel = SocketChannel.open();
+                attempts.add(attempt);
+                attempt.channel.configureBlocking(false);
+                attempt.channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                connected = attempt.channel.connect(attempt.address);
+                key = loop.register(attempt.channel, connected ? 0 : SelectionKey.OP_CONNECT, attempt);
+            } catch (IOException ex) {
+                attemptFailed(attempt, ex);
+                return;
+            }
+            if (connected) {
+                try {
+                    connected(attempt, key);
+                } catch (IOException ex) {
+                    fail(ex);
+                }
+            } else if (nextAddress < addresses.size()) {
+                nextAttemptTask = loop.getTimers().schedule(CONNECTION_ATTEMPT_DELAY_MILLIS, this::attemptNext);
             }
-            else if (ex instanceof ConnectException || ex instanceof SocketTimeoutException) {
-                throw new BadRequestException("Server '%s' did not respond to ping".formatted(hostname));
+        }
+
+        private void attemptFailed(ConnectAttempt attempt, IOException ex) {
+            attempts.remove(attempt);
+            closeQuietly(attempt.channel);
+            if (nextAddress < addresses.size()) {
+                attemptNext(); // No point waiting out the delay
+            } else if (attempts.isEmpty()) {
+                fail(ex);
+            }
+        }
+
+        @Override
+        public void onReady(SelectionKey key) {
+            try {
+                if (key.isWritable()) {
+                    flush(key);
+                } else if (key.isReadable()) {
+                    read(key);
+                }
+            } catch (IOException ex) {
+                fail(ex);
             }
-            else {
-                throw new BadRequestException("An error occurred pinging '%s:%s': %s".formatted(hostname, port, ex.getLocalizedMessage()));
+        }
+
+        private void connected(ConnectAttempt winner, SelectionKey key) throws IOException {
+            if (response.isDone()) {
+                closeQuietly(winner.channel);
+                return;
+            }
+            // The race is over, the other attempts are dropped
+            if (nextAttemptTask != null) {
+                nextAttemptTask.cancel();
+            }
+            for (ConnectAttempt attempt : attempts) {
+                if (attempt != winner) {
+                    closeQuietly(attempt.channel);
+                }
+            }
+            attempts.clear();
+            channel = winner.channel;
+            address = winner.address;
+            key.attach(this);
+
+            // The connect timeout is over, the server gets the same again to answer
+            timeoutTask.cancel();
+            timeoutTask = loop.getTimers().schedule(timeout, this::timedOut);
+
+            JavaPacketHandshakingInSetProtocol handshake = new JavaPacketHandshakingInSetProtocol(hostname, port, JavaMinecraftVersion.getLatestVersion().getProtocol());
+            JavaPacketStatusInStart statusRequest = new JavaPacketStatusInStart();
+            ByteBuffer buffer = loop.getBuffer().clear();
+            if (buffer.capacity() < handshake.size() + statusRequest.size()) {
+                buffer = ByteBuffer.allocate(handshake.size() + statusRequest.size());
+            }
+            handshake.write(buffer);
+            statusRequest.write(buffer);
+            write(key, buffer.flip());
+        }
+
+        private void write(SelectionKey key, ByteBuffer buffer) throws IOException {
+            channel.write(buffer);
+            if (buffer.hasRemaining()) {
+                // Rare for a few hundred bytes, keep the rest until the socket takes it
+                pendingWrite = ByteBuffer.allocate(buffer.remaining()).put(buffer).flip();
+                key.interestOps(SelectionKey.OP_WRITE);
+            } else {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        private void flush(SelectionKey key) throws IOException {
+            channel.write(pendingWrite);
+            if (!pendingWrite.hasRemaining()) {
+                pendingWrite = null;
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        private void read(SelectionKey key) throws IOException {
+            ByteBuffer buffer = loop.getBuffer().clear();
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Server stream was prematurely ended");
+            }
+            buffer.flip();
+            while (buffer.hasRemaining() && !response.isDone()) {
+                if (frame == null) {
+                    byte b = buffer.get();
+                    frameLength |= (b & 0x7F) << 7 * frameLengthBytes++;
+                    if ((b & 0x80) == 0) {
+                        if (frameLength <= 0 || frameLength > MAX_FRAME_LENGTH) {
+                            throw new IOException("Server returned unexpected value.");
+                        }
+                        frame = new byte[frameLength];
+                    } else if (frameLengthBytes >= MAX_FRAME_LENGTH_BYTES) {
+                        throw new IOException("VarInt was too big");
+                    }
+                    continue;
+                }
+                int length = Math.min(buffer.remaining(), frame.length - framePosition);
+                buffer.get(frame, framePosition, length);
+                framePosition += length;
+                if (framePosition == frame.length) {
+                    ByteBuffer packet = ByteBuffer.wrap(frame);
+                    frame = null;
+                    frameLength = frameLengthBytes = framePosition = 0;
+                    onPacket(key, packet);
+                }
+            }
+        }
+
+        private void onPacket(SelectionKey key, ByteBuffer packet) throws IOException {
+            if (status == null) {
+                JavaPacketStatusInStart statusResponse = new JavaPacketStatusInStart();
+                statusResponse.read(packet);
+                status = statusResponse.getResponse();
+
+                // Time the ping from the moment it is handed to the socket, the status response is no
+                // measure of latency as its size and how long the server takes to build it vary wildly.
+                // Not the scratch buffer, the rest of this read is still in it
+                ping = new JavaPacketStatusInPing(System.currentTimeMillis());
+                ByteBuffer buffer = ByteBuffer.allocate(ping.size());
+                ping.write(buffer);
+                pingSentNanos = System.nanoTime();
+                write(key, buffer.flip());
+                return;
+            }
+            long latencyNanos = System.nanoTime() - pingSentNanos;
+            ping.readPong(packet);
+            close();
+            response.complete(new StatusResponse(address, status, latencyNanos));
+        }
+
+        private void timedOut() {
+            close();
+            if (status != null) {
+                // Some servers never answer the ping, the status is still good
+                response.complete(new StatusResponse(address, status, null));
+                return;
+            }
+            response.completeExceptionally(new BadRequestException("Server '%s' did not respond to ping".formatted(hostname)));
+        }
+
+        private void fail(IOException ex) {
+            close();
+            if (status != null) {
+                // Others close the connection or send garbage instead of a pong
+                response.complete(new StatusResponse(address, status, null));
+            } else if (ex instanceof ConnectException) {
+                response.completeExceptionally(new BadRequestException("Server '%s' did not respond to ping".formatted(hostname)));
+            } else {
+                response.completeExceptionally(new BadRequestException("An error occurred pinging '%s:%s': %s".formatted(hostname, port, ex.getLocalizedMessage())));
+            }
+        }
+
+        private void close() {
+            if (timeoutTask != null) {
+                timeoutTask.cancel();
+            }
+            if (nextAttemptTask != null) {
+                nextAttemptTask.cancel();
+            }
+            for (ConnectAttempt attempt : attempts) {
+                closeQuietly(attempt.channel);
+            }
+            attempts.clear();
+            closeQuietly(channel);
+        }
+
+        private static void closeQuietly(SocketChannel channel) {
+            if (channel != null) {
+                try {
+                    channel.close(); // Also cancels its key
+                } catch (IOException ignored) {
+                    // Nothing left to do with it
+                }
+            }
+        }
+
+        /**
+         * A connection to one of the addresses, until it connects and the exchange takes over its key.
+         */
+        private final class ConnectAttempt implements SelectorLoop.Handler {
+            private final InetSocketAddress address;
+            private SocketChannel channel;
+
+            private ConnectAttempt(InetSocketAddress address) {
+                this.address = address;
+            }
+
+            @Override
+            public void onReady(SelectionKey key) {
+                try {
+                    if (!channel.finishConnect()) {
+                        return;
+                    }
+                } catch (IOException ex) {
+                    attemptFailed(this, ex);
+                    return;
+                }
+                try {
+                    connected(this, key);
+                } catch (IOException ex) {
+                    fail(ex);
+                }
             }
         }
     }
-}
\ No newline at end of file
+}
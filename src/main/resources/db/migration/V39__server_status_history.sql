@@ -0,0 +1,33 @@
+-- Results of every server ping (lookups and the crawler), for player count graphs.
+-- Partitioned by day: partitions are created ahead and dropped after the raw retention by ServerHistoryService.
+CREATE TABLE server_status_samples (
+    server      TEXT        NOT NULL, -- Server cache key, e.g. java-hypixel.net-25565
+    sampled_at  TIMESTAMPTZ NOT NULL,
+    online      INTEGER     NOT NULL,
+    max_players INTEGER     NOT NULL,
+    latency_ms  INTEGER,
+    protocol    INTEGER
+) PARTITION BY RANGE (sampled_at);
+
+-- Range reads for one server
+CREATE INDEX idx_server_status_samples_server_time ON server_status_samples (server, sampled_at);
+-- Rows arrive in time order, so a BRIN index is enough for the rollup's time window scans
+CREATE INDEX idx_server_status_samples_time_brin ON server_status_samples USING BRIN (sampled_at);
+
+-- Downsampled samples, resolution is one of '1m', '1h' or '1d'
+CREATE TABLE server_status_rollups (
+    server      TEXT        NOT NULL,
+    resolution  TEXT        NOT NULL,
+    bucket      TIMESTAMPTZ NOT NULL,
+    samples     INTEGER     NOT NULL,
+    online_avg  REAL        NOT NULL,
+    online_min  INTEGER     NOT NULL,
+    online_max  INTEGER     NOT NULL,
+    max_players INTEGER     NOT NULL,
+    latency_avg REAL,
+    protocol    INTEGER,
+    PRIMARY KEY (server, resolution, bucket)
+);
+
+-- Retention deletes per resolution
+CREATE INDEX idx_server_status_rollups_resolution_bucket ON server_status_rollups (resolution, bucket);
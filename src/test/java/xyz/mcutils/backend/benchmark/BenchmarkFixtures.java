@@ -0,0 +1,34 @@
+package xyz.mcutils.backend.benchmark;
+
+import xyz.mcutils.backend.common.ImageUtils;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Loads the fixtures bundled under {@code src/test/resources/benchmark}.
+ */
+final class BenchmarkFixtures {
+    private BenchmarkFixtures() {
+    }
+
+    static byte[] bytes(String name) {
+        try (InputStream stream = Objects.requireNonNull(BenchmarkFixtures.class.getResourceAsStream("/benchmark/" + name), name)) {
+            return stream.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String text(String name) {
+        return new String(bytes(name), StandardCharsets.UTF_8);
+    }
+
+    static BufferedImage image(String name) {
+        return ImageUtils.decodeImage(bytes(name));
+    }
+}
@@ -0,0 +1,89 @@
+package xyz.mcutils.backend.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import xyz.mcutils.backend.common.FuzzySearch;
+import xyz.mcutils.backend.common.search.TextSearchIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the full Levenshtein matrix with the bounded (bit-parallel) distance, for one query against a
+ * list of hostnames, and the linear {@link FuzzySearch#search} with the registry's {@link TextSearchIndex}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FuzzySearchBenchmark {
+    private static final String[] TEXTS = {
+            "hypixel.net", "mc.hypixel.net", "play.cubecraft.net", "mineplex.com", "us.mineplex.com",
+            "play.wynncraft.com", "mc.gamster.org", "play.hivemc.com", "geo.hivebedrock.network",
+            "play.minemen.club", "mccentral.org", "play.manacube.com", "mc.complex-gaming.com",
+            "play.pika-network.net", "jartexnetwork.com", "play.blocksmc.com", "mc.loverfella.com",
+            "play.extremecraft.net", "play.purpleprison.net", "mc.herobrine.org", "2b2t.org",
+            "play.applemc.fun", "org.mcsl.cc", "play.opblocks.com", "play.lemoncloud.net"
+    };
+
+    @Param({"hypixl", "cubecraft", "wynncraft.com", "zzzzzz"})
+    private String query;
+
+    private FuzzySearch.BoundedMatcher matcher;
+    /** A registry sized list of entries: a display name and a couple of hostnames each. */
+    private List<List<String>> entries;
+    private TextSearchIndex<List<String>> index;
+
+    @Setup
+    public void setup() {
+        matcher = new FuzzySearch.BoundedMatcher(query);
+        entries = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            String[] labels = TEXTS[i % TEXTS.length].split("\\.");
+            String name = labels[labels.length - 2] + i;
+            entries.add(List.of(name, name + ".net", "play." + name + ".com"));
+        }
+        index = TextSearchIndex.build(entries, entry -> entry, FuzzySearch.DEFAULT_TOKEN_PATTERN);
+    }
+
+    @Benchmark
+    public void fullMatrix(Blackhole blackhole) {
+        for (String text : TEXTS) {
+            blackhole.consume(FuzzySearch.levenshteinDistance(query, text));
+        }
+    }
+
+    @Benchmark
+    public void bounded(Blackhole blackhole) {
+        for (String text : TEXTS) {
+            blackhole.consume(FuzzySearch.boundedLevenshteinDistance(query, text, FuzzySearch.DEFAULT_MAX_FUZZY_DISTANCE));
+        }
+    }
+
+    @Benchmark
+    public void boundedReusedMatcher(Blackhole blackhole) {
+        for (String text : TEXTS) {
+            blackhole.consume(matcher.distance(text, FuzzySearch.DEFAULT_MAX_FUZZY_DISTANCE));
+        }
+    }
+
+    @Benchmark
+    public void matchScore(Blackhole blackhole) {
+        for (String text : TEXTS) {
+            blackhole.consume(FuzzySearch.matchScore(query, text, FuzzySearch.DEFAULT_MAX_FUZZY_DISTANCE));
+        }
+    }
+
+    @Benchmark
+    public List<List<String>> searchLinear() {
+        return FuzzySearch.search(entries, query, entry -> entry, FuzzySearch.DEFAULT_MAX_FUZZY_DISTANCE, 5);
+    }
+
+    @Benchmark
+    public List<List<String>> searchIndexed() {
+        return index.search(query, FuzzySearch.DEFAULT_MAX_FUZZY_DISTANCE, 5);
+    }
+}
@@ -0,0 +1,72 @@
+package xyz.mcutils.backend.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import xyz.mcutils.backend.common.ImageUtils;
+import xyz.mcutils.backend.common.SkinUtils;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Image decoding, scaling, PNG encoding and legacy skin upgrades, as done on every texture and render request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ImageBenchmark {
+    private byte[] skinBytes;
+    private byte[] legacySkinBytes;
+    private BufferedImage skinImage;
+    private BufferedImage legacySkinImage;
+    private BufferedImage renderSizedImage;
+
+    @Setup
+    public void setup() {
+        skinBytes = BenchmarkFixtures.bytes("skin.png");
+        legacySkinBytes = BenchmarkFixtures.bytes("legacy_skin.png");
+        skinImage = ImageUtils.decodeImage(skinBytes);
+        legacySkinImage = ImageUtils.decodeImage(legacySkinBytes);
+        renderSizedImage = ImageUtils.resize(skinImage, 8);
+    }
+
+    @Benchmark
+    public BufferedImage decodeImage() {
+        return ImageUtils.decodeImage(skinBytes);
+    }
+
+    @Benchmark
+    public BufferedImage resizeUp() {
+        return ImageUtils.resize(skinImage, 8);
+    }
+
+    @Benchmark
+    public BufferedImage resizeDown() {
+        return ImageUtils.resize(renderSizedImage, 0.25);
+    }
+
+    @Benchmark
+    public byte[] imageToBytes() {
+        return ImageUtils.imageToBytes(renderSizedImage);
+    }
+
+    @Benchmark
+    public byte[] imageToBytesFast() {
+        return ImageUtils.imageToBytes(renderSizedImage, 1);
+    }
+
+    @Benchmark
+    public BufferedImage upgradeLegacySkin() {
+        return SkinUtils.upgradeLegacySkin(legacySkinImage);
+    }
+
+    /**
+     * The full path a legacy texture takes: decode, upgrade, encode.
+     */
+    @Benchmark
+    public byte[] upgradeLegacySkinBytes() {
+        return SkinUtils.upgradeLegacySkin("benchmark", legacySkinBytes);
+    }
+}
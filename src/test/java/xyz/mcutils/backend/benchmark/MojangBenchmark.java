@@ -0,0 +1,80 @@
+package xyz.mcutils.backend.benchmark;
+
+import com.google.common.hash.Hashing;
+import org.openjdk.jmh.annotations.*;
+import xyz.mcutils.backend.Constants;
+import xyz.mcutils.backend.common.Tuple;
+import xyz.mcutils.backend.common.WebRequest;
+import xyz.mcutils.backend.model.token.mojang.CapeTextureToken;
+import xyz.mcutils.backend.model.token.mojang.MojangProfileToken;
+import xyz.mcutils.backend.model.token.mojang.SkinTextureToken;
+import xyz.mcutils.backend.service.MojangRateLimitService;
+import xyz.mcutils.backend.service.MojangService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Mojang blocked server checks (run on every uncached Java ping) and profile texture decoding.
+ * The blocked list is a generated one of about the real list's size, served through a mocked {@link WebRequest}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MojangBenchmark {
+    private static final int BLOCKED_HASHES = 2_500;
+
+    @Param({"play.example.com", "mc.blocked.example.com", "a.b.c.d.deep.example.net", "192.168.1.20"})
+    private String hostname;
+
+    private MojangService mojangService;
+    private MojangProfileToken profile;
+
+    @Setup
+    @SuppressWarnings("deprecation")
+    public void setup() {
+        Random random = new Random(1);
+        StringJoiner hashes = new StringJoiner("\n");
+        for (int i = 0; i < BLOCKED_HASHES; i++) {
+            byte[] bytes = new byte[20];
+            random.nextBytes(bytes);
+            hashes.add(Hashing.sha1().hashBytes(bytes).toString());
+        }
+        hashes.add(Hashing.sha1().hashString("*.blocked.example.com", StandardCharsets.ISO_8859_1).toString());
+
+        WebRequest webRequest = mock(WebRequest.class);
+        WebRequest.RequestBuilder request = mock(WebRequest.RequestBuilder.class);
+        when(webRequest.request(anyString())).thenReturn(request);
+        when(request.asBytes()).thenReturn(hashes.toString().getBytes(StandardCharsets.UTF_8));
+        mojangService = new MojangService(webRequest, mock(MojangRateLimitService.class), 40, 4, 100, 3000);
+
+        profile = Constants.GSON.fromJson(BenchmarkFixtures.text("profile.json"), MojangProfileToken.class);
+    }
+
+    @Benchmark
+    public boolean isServerBlocked() {
+        return mojangService.isServerBlocked(hostname);
+    }
+
+    /**
+     * The check behind a verdict cache miss.
+     */
+    @Benchmark
+    public boolean matchBlockedServer() {
+        return mojangService.getBlockedServers().matches(hostname);
+    }
+
+    @Benchmark
+    public Tuple<SkinTextureToken, CapeTextureToken> getSkinAndCape() {
+        return profile.getSkinAndCape();
+    }
+}
@@ -0,0 +1,101 @@
+package xyz.mcutils.backend.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import xyz.mcutils.backend.common.math.Vector3;
+import xyz.mcutils.backend.common.renderer.RenderOptions;
+import xyz.mcutils.backend.common.renderer.impl.server.ServerPreviewRenderer;
+import xyz.mcutils.backend.common.renderer.model.impl.PlayerHeadModel;
+import xyz.mcutils.backend.common.renderer.model.impl.PlayerModel;
+import xyz.mcutils.backend.common.renderer.raster.Face;
+import xyz.mcutils.backend.common.renderer.raster.Isometric3DRenderer;
+import xyz.mcutils.backend.common.renderer.raster.QuadRasterizer;
+import xyz.mcutils.backend.model.domain.server.MOTD;
+import xyz.mcutils.backend.model.domain.server.MinecraftServer;
+import xyz.mcutils.backend.model.domain.server.Players;
+import xyz.mcutils.backend.model.domain.skin.Skin;
+
+import java.awt.image.BufferedImage;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering hot paths: the isometric rasterizer behind the head and body renders, a single textured quad,
+ * and the server preview. Skin renders go straight to {@link Isometric3DRenderer} with the same views as the
+ * renderers, so no texture has to be fetched.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderBenchmark {
+    private static final Isometric3DRenderer.ViewParams HEAD_VIEW = new Isometric3DRenderer.ViewParams(
+            new Vector3(0, 28, -20), new Vector3(0, 28, 0), 225, -35, 1.0);
+    private static final Isometric3DRenderer.ViewParams BODY_VIEW = new Isometric3DRenderer.ViewParams(
+            new Vector3(0, 28, -45), new Vector3(0, 16.5, 0), 225, -20, 512.0 / 869.0);
+
+    @Param({"128", "512"})
+    private int size;
+
+    private BufferedImage skinImage;
+    private List<Face> headFaces;
+    private List<Face> bodyFaces;
+    private MinecraftServer server;
+
+    private int[] quadTexture;
+    private int[] quadPixels;
+    private float[] zBuffer;
+
+    @Setup
+    public void setup() {
+        skinImage = BenchmarkFixtures.image("skin.png");
+        Skin skin = new Skin(1, 0, Instant.EPOCH, null, null, Skin.Model.DEFAULT, false, Map.of());
+        headFaces = PlayerHeadModel.buildFaces(skin, true);
+        bodyFaces = PlayerModel.buildFaces(skin, true);
+
+        quadTexture = skinImage.getRGB(0, 0, 64, 64, null, 0, 64);
+        quadPixels = new int[size * size];
+        zBuffer = new float[size * size];
+
+        server = MinecraftServer.builder()
+                .hostname("play.example.com")
+                .motd(new MOTD(new String[]{
+                        "§6§lExample Network §r§7[1.8-1.21]",
+                        "§x§f§f§5§5§5§5Gradient §#55ff55and §nformatted §r§ftext"
+                }, null, null, null))
+                .players(new Players(1234, 5000, null))
+                .build();
+    }
+
+    @Benchmark
+    public BufferedImage isometricHead() {
+        return Isometric3DRenderer.INSTANCE.render(skinImage, headFaces, HEAD_VIEW, size);
+    }
+
+    @Benchmark
+    public BufferedImage isometricBody() {
+        return Isometric3DRenderer.INSTANCE.render(skinImage, bodyFaces, BODY_VIEW, size);
+    }
+
+    /**
+     * The head's 8x8 front face drawn as a skewed quad over most of the output.
+     */
+    @Benchmark
+    public int[] rasterizeQuad() {
+        Arrays.fill(zBuffer, Float.MAX_VALUE);
+        double edge = size * 0.8;
+        QuadRasterizer.rasterizeQuad(quadPixels, zBuffer, size, size,
+                size * 0.1, size * 0.2, size * 0.1 + edge, size * 0.1, size * 0.1, size * 0.2 + edge * 0.7,
+                1, 1, 1, 8, 8, 8, 8, quadTexture, 64, 64, 0.9f);
+        return quadPixels;
+    }
+
+    @Benchmark
+    public BufferedImage serverPreview() {
+        return ServerPreviewRenderer.INSTANCE.render(server, size, RenderOptions.DEFAULT);
+    }
+}
@@ -0,0 +1,84 @@
+package xyz.mcutils.backend.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private AdaptiveConcurrencyLimiter limiter(int initial) {
+        return new AdaptiveConcurrencyLimiter(initial, 2, 50, 0.5, Duration.ofSeconds(1), Duration.ofSeconds(1), clock::get);
+    }
+
+    @Test
+    void healthyCallsGrowTheLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+        for (int round = 0; round < 5; round++) {
+            AdaptiveConcurrencyLimiter.Permit[] permits = new AdaptiveConcurrencyLimiter.Permit[limiter.getLimit()];
+            for (int i = 0; i < permits.length; i++) {
+                permits[i] = limiter.acquire();
+            }
+            for (AdaptiveConcurrencyLimiter.Permit permit : permits) {
+                permit.success();
+            }
+        }
+        assertTrue(limiter.getLimit() > 10);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void droppedCallHalvesTheLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+        limiter.acquire().dropped();
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void burstOfDropsOnlyCutsOncePerCooldown() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+        AdaptiveConcurrencyLimiter.Permit first = limiter.acquire();
+        AdaptiveConcurrencyLimiter.Permit second = limiter.acquire();
+        first.dropped();
+        second.dropped();
+        assertEquals(10, limiter.getLimit());
+
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+        limiter.acquire().dropped();
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void slowCallCountsAsDropped() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        permit.success();
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void waitBeforeStartTimingIsNotLatency() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        permit.startTiming();
+        permit.success();
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    void limitNeverDropsBelowMinimum() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(3);
+        for (int i = 0; i < 5; i++) {
+            clock.addAndGet(Duration.ofSeconds(2).toNanos());
+            limiter.acquire().dropped();
+        }
+        assertEquals(2, limiter.getLimit());
+    }
+}
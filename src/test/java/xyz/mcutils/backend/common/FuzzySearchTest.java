@@ -0,0 +1,89 @@
+package xyz.mcutils.backend.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FuzzySearchTest {
+    /** A small alphabet so random edits often cancel out, plus a character outside the ASCII masks. */
+    private static final String ALPHABET = "abc_\u00e9";
+    private static final int ROUNDS = 20_000;
+
+    private final Random random = new Random(42);
+
+    @Test
+    void boundedDistanceMatchesTheFullDistanceNearTheBound() {
+        for (int round = 0; round < ROUNDS; round++) {
+            String a = randomName(random.nextInt(FuzzySearch.MAX_BIT_PARALLEL_LENGTH + 1));
+            int maxDistance = random.nextInt(4);
+            String b = edit(a, Math.max(0, maxDistance - 1 + random.nextInt(4)));
+            assertEquals(expected(a, b, maxDistance), FuzzySearch.boundedLevenshteinDistance(a, b, maxDistance), () -> a + " / " + b);
+        }
+    }
+
+    @Test
+    void bandedDistanceMatchesTheFullDistanceNearTheBound() {
+        for (int round = 0; round < ROUNDS; round++) {
+            String a = randomName(random.nextInt(FuzzySearch.MAX_BIT_PARALLEL_LENGTH * 2));
+            int maxDistance = random.nextInt(4);
+            String b = edit(a, Math.max(0, maxDistance - 1 + random.nextInt(4)));
+            assertEquals(expected(a, b, maxDistance), FuzzySearch.bandedLevenshteinDistance(a, b, maxDistance), () -> a + " / " + b);
+        }
+    }
+
+    @Test
+    void reusedMatcherMatchesTheFullDistance() {
+        FuzzySearch.BoundedMatcher matcher = new FuzzySearch.BoundedMatcher("");
+        for (int round = 0; round < ROUNDS; round++) {
+            String pattern = randomName(random.nextInt(FuzzySearch.MAX_BIT_PARALLEL_LENGTH + 1));
+            matcher.reset(pattern); // Masks of the previous pattern must not leak into this one
+            for (int text = 0; text < 3; text++) {
+                int maxDistance = random.nextInt(4);
+                String candidate = edit(pattern, Math.max(0, maxDistance - 1 + random.nextInt(4)));
+                assertEquals(expected(pattern, candidate, maxDistance), matcher.distance(candidate, maxDistance), () -> pattern + " / " + candidate);
+            }
+        }
+    }
+
+    @Test
+    void fullLengthPatternsUseEveryBit() {
+        String pattern = "a".repeat(FuzzySearch.MAX_BIT_PARALLEL_LENGTH);
+        FuzzySearch.BoundedMatcher matcher = new FuzzySearch.BoundedMatcher(pattern);
+        assertEquals(0, matcher.distance(pattern, 2));
+        assertEquals(1, matcher.distance("b" + pattern.substring(1), 2));
+        assertEquals(1, matcher.distance(pattern.substring(1), 2));
+        assertEquals(3, matcher.distance("bbb" + pattern.substring(3), 2));
+    }
+
+    private static int expected(String a, String b, int maxDistance) {
+        int distance = FuzzySearch.levenshteinDistance(a, b);
+        return distance <= maxDistance ? distance : maxDistance + 1;
+    }
+
+    private String randomName(int length) {
+        StringBuilder name = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            name.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return name.toString();
+    }
+
+    /**
+     * Applies random insertions, deletions and substitutions.
+     */
+    private String edit(String text, int edits) {
+        StringBuilder edited = new StringBuilder(text);
+        for (int i = 0; i < edits; i++) {
+            int operation = edited.isEmpty() ? 0 : random.nextInt(3);
+            char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+            switch (operation) {
+                case 0 -> edited.insert(random.nextInt(edited.length() + 1), c);
+                case 1 -> edited.deleteCharAt(random.nextInt(edited.length()));
+                default -> edited.setCharAt(random.nextInt(edited.length()), c);
+            }
+        }
+        return edited.toString();
+    }
+}
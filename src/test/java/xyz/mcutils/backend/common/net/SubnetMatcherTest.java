@@ -0,0 +1,59 @@
+package xyz.mcutils.backend.common.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubnetMatcherTest {
+
+    private final SubnetMatcher matcher = SubnetMatcher.compile(List.of(
+            "10.0.0.0/8", " 172.16.0.0/12", "192.168.0.0/16", "127.0.0.0/8", "100.64.0.0/10",
+            "::1/128", "fc00::/7", "fe80::/10", "203.0.113.7", ""
+    ));
+
+    @Test
+    void matchesIpv4Subnets() {
+        assertTrue(matcher.contains("10.1.2.3"));
+        assertTrue(matcher.contains("172.31.255.255"));
+        assertFalse(matcher.contains("172.32.0.0"));
+        assertTrue(matcher.contains("100.127.0.1"));
+        assertFalse(matcher.contains("100.128.0.1"));
+        assertTrue(matcher.contains("203.0.113.7"));
+        assertFalse(matcher.contains("203.0.113.8"));
+        assertFalse(matcher.contains("8.8.8.8"));
+    }
+
+    @Test
+    void matchesIpv6Subnets() {
+        assertTrue(matcher.contains("::1"));
+        assertFalse(matcher.contains("::2"));
+        assertTrue(matcher.contains("fd12:3456::1"));
+        assertTrue(matcher.contains("fe80::abcd"));
+        assertFalse(matcher.contains("2001:db8::1"));
+    }
+
+    @Test
+    void matchesMappedIpv4AgainstIpv4Subnets() {
+        assertTrue(matcher.contains(0L, 0xFFFF_7F00_0001L)); // ::ffff:127.0.0.1
+        assertFalse(matcher.contains(0L, 0xFFFF_0808_0808L)); // ::ffff:8.8.8.8
+    }
+
+    @Test
+    void broaderSubnetsCoverNarrowerOnes() {
+        SubnetMatcher overlapping = SubnetMatcher.compile(List.of("10.1.0.0/16", "10.0.0.0/8", "0.0.0.0/0"));
+        assertTrue(overlapping.contains("10.200.0.1"));
+        assertTrue(overlapping.contains("1.1.1.1"));
+        assertFalse(overlapping.contains("::1"));
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> SubnetMatcher.compile(List.of("10.0.0.0/33")));
+        assertThrows(IllegalArgumentException.class, () -> SubnetMatcher.compile(List.of("not-a-subnet/8")));
+        assertThrows(IllegalArgumentException.class, () -> matcher.contains("256.1.1.1"));
+        assertThrows(IllegalArgumentException.class, () -> matcher.contains("010.0.0.1"));
+        assertThrows(IllegalArgumentException.class, () -> matcher.contains("example.com"));
+    }
+}
@@ -0,0 +1,74 @@
+package xyz.mcutils.backend.common.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final TimerWheel wheel = new TimerWheel(10, 8, clock::get);
+
+    private void advanceMillis(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    @Test
+    void firesOnceTheDeadlineHasPassed() {
+        List<String> fired = new ArrayList<>();
+        wheel.schedule(25, () -> fired.add("a"));
+        advanceMillis(20);
+        wheel.advance();
+        assertTrue(fired.isEmpty());
+        advanceMillis(10);
+        assertEquals(1, wheel.advance());
+        assertEquals(List.of("a"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelledTimeoutsNeverFire() {
+        List<String> fired = new ArrayList<>();
+        TimerWheel.Timeout timeout = wheel.schedule(10, () -> fired.add("a"));
+        wheel.schedule(10, () -> fired.add("b"));
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        advanceMillis(50);
+        wheel.advance();
+        assertEquals(List.of("b"), fired);
+    }
+
+    @Test
+    void timeoutsPastOneTurnWaitForTheirTurn() {
+        List<String> fired = new ArrayList<>();
+        wheel.schedule(30, () -> fired.add("near"));
+        wheel.schedule(30 + 8 * 10, () -> fired.add("far")); // Same bucket, one turn later
+        advanceMillis(40);
+        wheel.advance();
+        assertEquals(List.of("near"), fired);
+        advanceMillis(80);
+        wheel.advance();
+        assertEquals(List.of("near", "far"), fired);
+    }
+
+    @Test
+    void taskCanCancelAnotherInTheSameBucket() {
+        List<String> fired = new ArrayList<>();
+        TimerWheel.Timeout[] later = new TimerWheel.Timeout[1];
+        wheel.schedule(10, () -> {
+            fired.add("a");
+            later[0].cancel();
+        });
+        later[0] = wheel.schedule(90, () -> fired.add("b"));
+        wheel.schedule(10, () -> fired.add("c"));
+        advanceMillis(200);
+        wheel.advance();
+        assertEquals(2, fired.size());
+        assertFalse(fired.contains("b"));
+    }
+}
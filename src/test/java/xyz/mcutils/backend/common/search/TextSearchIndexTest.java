@@ -0,0 +1,94 @@
+package xyz.mcutils.backend.common.search;
+
+import org.junit.jupiter.api.Test;
+import xyz.mcutils.backend.common.FuzzySearch;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextSearchIndexTest {
+    private static final String ALPHABET = "abcd.- ";
+
+    private final Random random = new Random(11);
+    private final List<List<String>> items = new ArrayList<>();
+    private final TextSearchIndex<List<String>> index;
+
+    TextSearchIndexTest() {
+        for (int i = 0; i < 500; i++) {
+            List<String> texts = new ArrayList<>();
+            for (int text = 0, count = 1 + random.nextInt(3); text < count; text++) {
+                String value = randomText(1 + random.nextInt(12));
+                texts.add(random.nextBoolean() ? value.toUpperCase(Locale.ROOT) : value);
+            }
+            items.add(texts);
+        }
+        index = TextSearchIndex.build(items, texts -> texts, FuzzySearch.DEFAULT_TOKEN_PATTERN);
+    }
+
+    @Test
+    void searchMatchesABruteForceScan() {
+        for (int round = 0; round < 300; round++) {
+            String query = randomText(1 + random.nextInt(8));
+            int maxDistance = random.nextInt(3);
+            int limit = 1 + random.nextInt(20);
+            assertEquals(bruteForce(query, maxDistance, limit), index.search(query, maxDistance, limit), query);
+        }
+    }
+
+    @Test
+    void blankQueriesFindNothing() {
+        assertTrue(index.search("  ", 2, 10).isEmpty());
+        assertTrue(index.search(null, 2, 10).isEmpty());
+    }
+
+    /**
+     * Scores every item with the plain dynamic programming distance, ties kept in item order.
+     */
+    private List<List<String>> bruteForce(String query, int maxDistance, int limit) {
+        String normalized = query.trim().toLowerCase();
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, Integer> scores = new HashMap<>();
+        for (int item = 0; item < items.size(); item++) {
+            int best = Integer.MAX_VALUE;
+            for (String text : items.get(item)) {
+                String lower = text.toLowerCase();
+                if (lower.contains(normalized)) {
+                    best = 0;
+                    break;
+                }
+                List<String> terms = new ArrayList<>(List.of(lower));
+                for (String token : FuzzySearch.DEFAULT_TOKEN_PATTERN.split(lower)) {
+                    if (token.length() >= 2) {
+                        terms.add(token);
+                    }
+                }
+                for (String term : terms) {
+                    int distance = FuzzySearch.levenshteinDistance(normalized, term);
+                    if (distance <= maxDistance) {
+                        best = Math.min(best, distance);
+                    }
+                }
+            }
+            if (best != Integer.MAX_VALUE) {
+                scores.put(item, best);
+            }
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(entry -> items.get(entry.getKey()))
+                .toList();
+    }
+
+    private String randomText(int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,83 @@
+package xyz.mcutils.backend.common.search;
+
+import org.junit.jupiter.api.Test;
+import xyz.mcutils.backend.common.FuzzySearch;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UsernamePrefixIndexTest {
+    private static final String ALPHABET = "abc_1";
+
+    private final Random random = new Random(7);
+    private final List<Entry> entries = new ArrayList<>();
+    private final UsernamePrefixIndex index;
+
+    UsernamePrefixIndexTest() {
+        UsernamePrefixIndex.Builder builder = new UsernamePrefixIndex.Builder();
+        for (int i = 0; i < 2_000; i++) {
+            // Distinct scores, so the expected order has no ties
+            Entry entry = new Entry(new UUID(0, i), randomName(1 + random.nextInt(16)), i * 7919L % 2_003);
+            entries.add(entry);
+            builder.add(entry.id(), i % 3 == 0 ? entry.username().toUpperCase(Locale.ROOT) : entry.username(), entry.score());
+        }
+        index = builder.build();
+    }
+
+    @Test
+    void prefixSearchReturnsTheBestScoredMatches() {
+        for (int round = 0; round < 500; round++) {
+            String prefix = randomName(random.nextInt(4));
+            int limit = 1 + random.nextInt(10);
+            Predicate<UUID> excluded = id -> id.getLeastSignificantBits() % 5 == 0;
+            List<UUID> expected = entries.stream()
+                    .filter(entry -> entry.username().startsWith(prefix) && !excluded.test(entry.id()))
+                    .sorted(Comparator.comparingLong(Entry::score).reversed())
+                    .limit(limit)
+                    .map(Entry::id)
+                    .toList();
+            assertEquals(expected, index.search(prefix, limit, excluded).stream().map(UsernamePrefixIndex.Match::id).toList(), prefix);
+        }
+    }
+
+    @Test
+    void fuzzySearchReturnsTheClosestMatches() {
+        for (int round = 0; round < 300; round++) {
+            String query = randomName(1 + random.nextInt(16));
+            int maxDistance = random.nextInt(3);
+            int limit = 1 + random.nextInt(10);
+            Predicate<UUID> excluded = id -> id.getLeastSignificantBits() % 5 == 0;
+            List<UUID> expected = entries.stream()
+                    .filter(entry -> FuzzySearch.levenshteinDistance(query, entry.username()) <= maxDistance && !excluded.test(entry.id()))
+                    .sorted(Comparator.comparingInt((Entry entry) -> FuzzySearch.levenshteinDistance(query, entry.username()))
+                            .thenComparing(Comparator.comparingLong(Entry::score).reversed()))
+                    .limit(limit)
+                    .map(Entry::id)
+                    .toList();
+            List<UsernamePrefixIndex.FuzzyMatch> matches = index.searchFuzzy(query, maxDistance, limit, excluded);
+            assertEquals(expected, matches.stream().map(UsernamePrefixIndex.FuzzyMatch::id).toList(), query);
+            for (UsernamePrefixIndex.FuzzyMatch match : matches) {
+                assertEquals(FuzzySearch.levenshteinDistance(query, match.username()), match.distance());
+            }
+        }
+    }
+
+    @Test
+    void emptyIndexFindsNothing() {
+        assertTrue(UsernamePrefixIndex.EMPTY.search("a", 5, id -> false).isEmpty());
+        assertTrue(UsernamePrefixIndex.EMPTY.searchFuzzy("a", 2, 5, id -> false).isEmpty());
+    }
+
+    private String randomName(int length) {
+        StringBuilder name = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            name.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return name.toString();
+    }
+
+    private record Entry(UUID id, String username, long score) {}
+}